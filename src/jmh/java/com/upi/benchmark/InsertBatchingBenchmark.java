@@ -0,0 +1,157 @@
+package com.upi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput into the transactions table on in-memory H2, replaying the statements Hibernate
+ * issues per id strategy: with IDENTITY, one insert per row that returns its generated key; with a
+ * pooled sequence and hibernate.jdbc.batch_size, one sequence call per block of ids and JDBC batches.
+ * H2 runs in process, so round trips are cheap here; against a networked PostgreSQL the gap is wider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+    private static final int ROWS = 500;
+
+    // Matches spring.jpa.properties.hibernate.jdbc.batch_size and the Transaction sequence's allocationSize
+    private static final int BATCH_SIZE = 50;
+    private static final int ALLOCATION_SIZE = 500;
+
+    private static final String COLUMNS = "utr_number, sender_vpa_address, receiver_vpa_address, amount, "
+            + "description, type, status, created_at, completed_at";
+
+    private Connection connection;
+
+    private long nextId = 1;
+    private long lastId;
+    private long utr;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:insert_bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_transactions (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "utr_number VARCHAR(255) NOT NULL UNIQUE, sender_vpa_address VARCHAR(255), "
+                    + "receiver_vpa_address VARCHAR(255), amount NUMERIC(19, 2) NOT NULL, description VARCHAR(255), "
+                    + "type VARCHAR(255), status VARCHAR(255), created_at TIMESTAMP NOT NULL, completed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE sequence_transactions (id BIGINT PRIMARY KEY, "
+                    + "utr_number VARCHAR(255) NOT NULL UNIQUE, sender_vpa_address VARCHAR(255), "
+                    + "receiver_vpa_address VARCHAR(255), amount NUMERIC(19, 2) NOT NULL, description VARCHAR(255), "
+                    + "type VARCHAR(255), status VARCHAR(255), created_at TIMESTAMP NOT NULL, completed_at TIMESTAMP)");
+            statement.execute("CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE identity_transactions");
+            statement.execute("TRUNCATE TABLE sequence_transactions");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identityPerRow() throws Exception {
+        long lastKey = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_transactions (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, 1);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastKey = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastKey;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequenceBatched() throws Exception {
+        long id = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO sequence_transactions (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                id = nextPooledId();
+                insert.setLong(1, id);
+                bind(insert, 2);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return id;
+    }
+
+    /**
+     * One sequence call per block of ALLOCATION_SIZE ids, as with Hibernate's pooled optimizer.
+     */
+    private long nextPooledId() throws Exception {
+        if (nextId > lastId) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("CALL NEXT VALUE FOR transactions_seq")) {
+                rs.next();
+                nextId = rs.getLong(1);
+            }
+            lastId = nextId + ALLOCATION_SIZE - 1;
+        }
+        return nextId++;
+    }
+
+    private void bind(PreparedStatement insert, int first) throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        insert.setString(first, "UPI" + (utr++));
+        insert.setString(first + 1, "alice@okbank");
+        insert.setString(first + 2, "merchant@okbank");
+        insert.setBigDecimal(first + 3, new BigDecimal("199.99"));
+        insert.setString(first + 4, "Order");
+        insert.setString(first + 5, "P2M");
+        insert.setString(first + 6, "COMPLETED");
+        insert.setTimestamp(first + 7, now);
+        insert.setTimestamp(first + 8, now);
+    }
+}
@@ -0,0 +1,113 @@
+package com.upi.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.upi.config.TransactionResponseSerializer;
+import com.upi.dto.transaction.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time for a 50-row history page: JSON with Jackson's bean serializer and with the hand-written
+ * one, then CBOR and Smile through the hand-written one. The payload size of each is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonEncodingBenchmark {
+
+    private ObjectMapper beanMapper;
+
+    private ObjectMapper tunedMapper;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    private List<TransactionResponse> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Matches the Spring Boot defaults: java.time support, ISO dates instead of timestamps
+        beanMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        tunedMapper = tunedMapper(new JsonFactory());
+        cborMapper = tunedMapper(new CBORFactory());
+        smileMapper = tunedMapper(new SmileFactory());
+
+        page = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 50; i++) {
+            page.add(TransactionResponse.builder()
+                    .id((long) i)
+                    .utrNumber("UPI0123456789AB" + (1000 + i))
+                    .senderVpa("alice@okbank")
+                    .receiverVpa("merchant" + i + "@okbank")
+                    .amount(new BigDecimal("199.99").add(BigDecimal.valueOf(i)))
+                    .description("Order #" + i)
+                    .type("P2M")
+                    .status("COMPLETED")
+                    .createdAt(now.minusMinutes(i))
+                    .completedAt(now.minusMinutes(i))
+                    .build());
+        }
+
+        byte[] bean = beanMapper.writeValueAsBytes(page);
+        byte[] tuned = tunedMapper.writeValueAsBytes(page);
+        if (!new String(bean).equals(new String(tuned))) {
+            throw new IllegalStateException("Tuned serializer output differs from the bean serializer");
+        }
+        System.out.println("JSON payload for 50 rows: " + bean.length + " bytes");
+        System.out.println("CBOR payload for 50 rows: " + cborMapper.writeValueAsBytes(page).length + " bytes");
+        System.out.println("Smile payload for 50 rows: " + smileMapper.writeValueAsBytes(page).length + " bytes");
+    }
+
+    private static ObjectMapper tunedMapper(JsonFactory factory) {
+        return new ObjectMapper(factory).registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(new SimpleModule()
+                        .addSerializer(TransactionResponse.class, new TransactionResponseSerializer()));
+    }
+
+    @Benchmark
+    public byte[] beanSerializer() throws Exception {
+        return beanMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] tunedSerializer() throws Exception {
+        return tunedMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cborSerializer() throws Exception {
+        return cborMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smileSerializer() throws Exception {
+        return smileMapper.writeValueAsBytes(page);
+    }
+}
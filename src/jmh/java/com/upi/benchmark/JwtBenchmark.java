@@ -0,0 +1,83 @@
+package com.upi.benchmark;
+
+import com.upi.security.jwt.JwtUtils;
+import com.upi.security.jwt.VerifiedTokenCache;
+import com.upi.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request from its bearer token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private JwtUtils jwtUtils;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache();
+        BenchmarkSupport.setField(verifiedTokenCache, "maxEntries", 50_000);
+
+        jwtUtils = new JwtUtils();
+        BenchmarkSupport.setField(jwtUtils, "jwtSecret", SECRET);
+        BenchmarkSupport.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        BenchmarkSupport.setField(jwtUtils, "verifiedTokenCache", verifiedTokenCache);
+        jwtUtils.init();
+
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "alice", "alice@example.com", "9876543210", null, authorities);
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+
+    /**
+     * The original filter path: a fresh key and parser per call, and the token parsed twice.
+     */
+    @Benchmark
+    public Claims validateThenParseWithFreshParsers() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        Key again = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(again).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims parseOnceWithSharedParser() {
+        return jwtUtils.getClaimsFromJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims validatedClaimsFromCache() {
+        return jwtUtils.getValidatedClaims(token);
+    }
+}
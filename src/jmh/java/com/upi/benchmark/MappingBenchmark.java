@@ -0,0 +1,102 @@
+package com.upi.benchmark;
+
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.mapper.BankAccountMapper;
+import com.upi.mapper.BankAccountMapperImpl;
+import com.upi.mapper.TransactionMapper;
+import com.upi.mapper.TransactionMapperImpl;
+import com.upi.model.BankAccount;
+import com.upi.model.Transaction;
+import com.upi.util.MaskingUtil;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row DTO conversion cost: the reflective ModelMapper used before against the generated MapStruct mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+    private final BankAccountMapper bankAccountMapper = new BankAccountMapperImpl();
+
+    private Transaction transaction;
+
+    private BankAccount bankAccount;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        transaction = Transaction.builder()
+                .id(42L)
+                .utrNumber("UPI0123456789ABCDEF")
+                .senderVpaAddress("alice@okbank")
+                .receiverVpaAddress("bob@okbank")
+                .amount(new BigDecimal("1250.50"))
+                .description("Dinner")
+                .type(Transaction.TransactionType.P2P)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .createdAt(now)
+                .completedAt(now)
+                .build();
+        bankAccount = BankAccount.builder()
+                .id(7L)
+                .bankName("OK Bank")
+                .accountHolderName("Alice")
+                .accountNumber("123456789012")
+                .ifscCode("OKBK0000001")
+                .accountType(BankAccount.AccountType.SAVINGS)
+                .balance(new BigDecimal("10000.00"))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        // Warm ModelMapper's type map outside the measurement, as the application did after the first request
+        modelMapper.map(transaction, TransactionResponse.class);
+        modelMapper.map(bankAccount, BankAccountResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionModelMapper() {
+        return modelMapper.map(transaction, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionMapStruct() {
+        return transactionMapper.toResponse(transaction);
+    }
+
+    @Benchmark
+    public BankAccountResponse bankAccountModelMapper() {
+        BankAccountResponse response = modelMapper.map(bankAccount, BankAccountResponse.class);
+        response.setAccountNumber(MaskingUtil.maskAccountNumber(bankAccount.getAccountNumber()));
+        return response;
+    }
+
+    @Benchmark
+    public BankAccountResponse bankAccountMapStruct() {
+        return bankAccountMapper.toResponse(bankAccount);
+    }
+}
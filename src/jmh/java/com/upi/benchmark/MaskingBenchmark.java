@@ -0,0 +1,52 @@
+package com.upi.benchmark;
+
+import com.upi.util.MaskingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskingBenchmark {
+
+    private String accountNumber = "123456789012";
+
+    private String email = "john.doe@example.com";
+
+    /**
+     * The original StringBuilder-based masking, kept as the baseline.
+     */
+    @Benchmark
+    public String maskAccountNumberStringBuilder() {
+        int length = accountNumber.length();
+        String lastFourDigits = accountNumber.substring(length - 4);
+        StringBuilder masked = new StringBuilder();
+        for (int i = 0; i < length - 4; i++) {
+            masked.append("X");
+        }
+        masked.append(lastFourDigits);
+        return masked.toString();
+    }
+
+    @Benchmark
+    public String maskAccountNumber() {
+        return MaskingUtil.maskAccountNumber(accountNumber);
+    }
+
+    @Benchmark
+    public String maskEmail() {
+        return MaskingUtil.maskEmail(email);
+    }
+}
@@ -0,0 +1,142 @@
+package com.upi.benchmark;
+
+import com.upi.security.ratelimit.RateLimitFilter;
+import com.upi.security.ratelimit.TokenBucketLimiter;
+import com.upi.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the rate limiter adds to an allowed request. The budget is set high enough that every call is admitted.
+ *
+ * The filter benchmarks run the whole {@link RateLimitFilter} path a request takes: classification, the IP and
+ * user buckets and the security context lookup, against a mock request and an empty chain. {@code filterDisabled}
+ * is the same filter with limiting switched off, so the difference is what limiting adds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        final TokenBucketLimiter<Long> limiter = new TokenBucketLimiter<>(1e9, 1_000_000, 100_000);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        final Long userId = ThreadLocalRandom.current().nextLong(1, 10_000);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filter {
+        final RateLimitFilter limiting = filter(true);
+        final RateLimitFilter disabled = filter(false);
+
+        private static RateLimitFilter filter(boolean enabled) {
+            RateLimitFilter filter = new RateLimitFilter();
+            BenchmarkSupport.setField(filter, "enabled", enabled);
+            BenchmarkSupport.setField(filter, "maxKeys", 100_000);
+            for (String rate : List.of("authIpRate", "paymentUserRate", "paymentIpRate", "historyUserRate", "historyIpRate")) {
+                BenchmarkSupport.setField(filter, rate, 1e9);
+            }
+            for (String burst : List.of("authIpBurst", "paymentUserBurst", "paymentIpBurst", "historyUserBurst", "historyIpBurst")) {
+                BenchmarkSupport.setField(filter, burst, 1_000_000);
+            }
+            filter.init();
+            return filter;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        final MockHttpServletRequest payment = request("POST");
+        final MockHttpServletRequest history = request("GET");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final FilterChain chain = (request, response) -> { };
+
+        private static MockHttpServletRequest request(String method) {
+            MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/api/transactions");
+            request.setContextPath("/api");
+            request.setRemoteAddr("10.0.0." + ThreadLocalRandom.current().nextInt(1, 255));
+            return request;
+        }
+
+        // Thread-scoped setup runs on the benchmark thread, which is where the security context lives
+        @Setup
+        public void authenticate() {
+            UserDetailsImpl user = new UserDetailsImpl(ThreadLocalRandom.current().nextLong(1, 10_000), "bench",
+                    "bench@example.com", "9000000000", "", List.of());
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        }
+
+        @TearDown
+        public void clear() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterDisabled(Filter filter, Request request) throws Exception {
+        filter.disabled.doFilter(request.payment, request.response, request.chain);
+        return request.response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterPayment(Filter filter, Request request) throws Exception {
+        filter.limiting.doFilter(request.payment, request.response, request.chain);
+        return request.response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterHistory(Filter filter, Request request) throws Exception {
+        filter.limiting.doFilter(request.history, request.response, request.chain);
+        return request.response;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public MockHttpServletResponse filterPaymentConcurrently(Filter filter, Request request) throws Exception {
+        filter.limiting.doFilter(request.payment, request.response, request.chain);
+        return request.response;
+    }
+
+    @Benchmark
+    public long acquire(Limiter limiter, Client client) {
+        return limiter.limiter.tryAcquire(client.userId);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long acquireDistinctUsersConcurrently(Limiter limiter, Client client) {
+        return limiter.limiter.tryAcquire(client.userId);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long acquireSameUserConcurrently(Limiter limiter) {
+        return limiter.limiter.tryAcquire(1L);
+    }
+}
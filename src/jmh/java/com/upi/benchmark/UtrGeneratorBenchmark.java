@@ -0,0 +1,46 @@
+package com.upi.benchmark;
+
+import com.upi.util.UtrGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtrGeneratorBenchmark {
+
+    private final UtrGenerator utrGenerator = new UtrGenerator(1);
+
+    /**
+     * The original random-UUID based UTR, kept as the baseline.
+     */
+    @Benchmark
+    public String uuidUtr() {
+        return "UPI" + UUID.randomUUID().toString().replaceAll("-", "").substring(0, 16).toUpperCase();
+    }
+
+    @Benchmark
+    public String snowflakeUtr() {
+        return utrGenerator.nextUtr();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String snowflakeUtrContended() {
+        return utrGenerator.nextUtr();
+    }
+}
@@ -0,0 +1,42 @@
+package com.upi.benchmark;
+
+import com.upi.service.impl.VpaServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VpaPatternBenchmark {
+
+    @Param({"alice.smith@okbank", "not-a-vpa", "averyveryveryverylongusername.with-dots_and-dashes@bankhandle"})
+    private String address;
+
+    private Pattern vpaPattern;
+
+    @Setup
+    public void setUp() {
+        // The exact pattern VpaServiceImpl validates with
+        vpaPattern = (Pattern) BenchmarkSupport.getStatic(VpaServiceImpl.class, "VPA_PATTERN");
+    }
+
+    @Benchmark
+    public boolean matchVpa() {
+        return vpaPattern.matcher(address).matches();
+    }
+}
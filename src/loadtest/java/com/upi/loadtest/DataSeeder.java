@@ -0,0 +1,142 @@
+package com.upi.loadtest;
+
+import com.upi.dto.MessageResponse;
+import com.upi.dto.auth.JwtResponse;
+import com.upi.dto.auth.LoginRequest;
+import com.upi.dto.auth.SignupRequest;
+import com.upi.dto.bank.BankAccountRequest;
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.dto.vpa.VpaRequest;
+import com.upi.model.User;
+import com.upi.repository.UserRepository;
+import com.upi.service.AuthService;
+import com.upi.service.BankAccountService;
+import com.upi.service.VpaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates the synthetic population through the same services the API uses: signup, a verified
+ * primary bank account and a primary VPA per user, then a JWT from a real sign-in. Names are
+ * derived from the index, so every run with the same size seeds the same data.
+ */
+class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    static final String HANDLE = "loadbank";
+    static final String PASSWORD = "loadtest123";
+    static final String UPI_PIN = "1234";
+
+    /**
+     * A seeded user and what a client needs to act as them.
+     */
+    static class SeededUser {
+        final int index;
+        final String username;
+        final String vpa;
+        final boolean merchant;
+        volatile String token;
+
+        SeededUser(int index, String username, String vpa, boolean merchant, String token) {
+            this.index = index;
+            this.username = username;
+            this.vpa = vpa;
+            this.merchant = merchant;
+            this.token = token;
+        }
+    }
+
+    private final AuthService authService;
+    private final BankAccountService bankAccountService;
+    private final VpaService vpaService;
+    private final UserRepository userRepository;
+
+    DataSeeder(ApplicationContext context) {
+        this.authService = context.getBean(AuthService.class);
+        this.bankAccountService = context.getBean(BankAccountService.class);
+        this.vpaService = context.getBean(VpaService.class);
+        this.userRepository = context.getBean(UserRepository.class);
+    }
+
+    /**
+     * Seeds {@code users} users, the first {@code merchants} of which receive P2M payments.
+     */
+    List<SeededUser> seed(int users, int merchants, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SeededUser>> futures = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> seedUser(index, index < merchants)));
+            }
+            List<SeededUser> seeded = new ArrayList<>(users);
+            for (Future<SeededUser> future : futures) {
+                try {
+                    seeded.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Seeding failed: " + e.getCause().getMessage(), e.getCause());
+                }
+                if (seeded.size() % 100 == 0) {
+                    logger.info("Seeded {}/{} users", seeded.size(), users);
+                }
+            }
+            return seeded;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private SeededUser seedUser(int index, boolean merchant) {
+        String username = (merchant ? "lt_merchant_" : "lt_user_") + String.format("%06d", index);
+        String localPart = (merchant ? "ltmerchant" : "ltuser") + String.format("%06d", index);
+
+        MessageResponse signup = authService.registerUser(SignupRequest.builder()
+                .username(username)
+                .firstName("Load")
+                .lastName("Test" + index)
+                .email(username + "@loadtest.local")
+                .phone(String.format("9%09d", index))
+                .password(PASSWORD)
+                .build());
+        if (!signup.isSuccess()) {
+            throw new IllegalStateException(username + ": " + signup.getMessage());
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalStateException(username + ": not found after signup"));
+
+        BankAccountResponse account = bankAccountService.addBankAccount(user, BankAccountRequest.builder()
+                .bankName("Load Test Bank")
+                .accountHolderName("Load Test" + index)
+                .accountNumber(String.format("50%010d", index))
+                .ifscCode(String.format("LOAD0%06d", index % 1000000))
+                .accountType(merchant ? "CURRENT" : "SAVINGS")
+                .upiPin(UPI_PIN)
+                .primary(true)
+                .build());
+        bankAccountService.verifyBankAccount(user, account.getId());
+
+        String vpa = vpaService.createVpa(user, VpaRequest.builder()
+                .bankAccountId(account.getId())
+                .username(localPart)
+                .handle(HANDLE)
+                .primary(true)
+                .build()).getAddress();
+
+        try {
+            JwtResponse jwt = authService.authenticateUser(new LoginRequest(username, PASSWORD));
+            return new SeededUser(index, username, vpa, merchant, jwt.getToken());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.upi.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Money checks run straight against the tables. Payments only move money between seeded
+ * accounts, so the sum of all balances must not change, and every account must equal its
+ * opening balance minus what it sent plus what it received in COMPLETED transactions.
+ */
+class LedgerCheck {
+
+    private static final String TOTAL_BALANCE = "SELECT COALESCE(SUM(balance), 0) FROM bank_accounts";
+
+    private static final String ACCOUNT_BALANCES = "SELECT id, balance FROM bank_accounts";
+
+    private static final String ACCOUNT_LEDGER = "SELECT b.id, b.balance, "
+            + "COALESCE((SELECT SUM(t.amount) FROM transactions t JOIN virtual_payment_addresses v "
+            + "ON v.address = t.sender_vpa_address WHERE v.bank_account_id = b.id AND t.status = 'COMPLETED'), 0) AS sent, "
+            + "COALESCE((SELECT SUM(t.amount) FROM transactions t JOIN virtual_payment_addresses v "
+            + "ON v.address = t.receiver_vpa_address WHERE v.bank_account_id = b.id AND t.status = 'COMPLETED'), 0) AS received "
+            + "FROM bank_accounts b";
+
+    private static final String COMPLETED_PAYMENTS = "SELECT COUNT(*) FROM transactions WHERE status = 'COMPLETED'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private BigDecimal openingTotal;
+    private Map<Long, BigDecimal> openingBalances;
+    private long openingCompleted;
+
+    LedgerCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records opening balances; call after seeding and before any payment.
+     */
+    void snapshot() {
+        openingTotal = jdbcTemplate.queryForObject(TOTAL_BALANCE, BigDecimal.class);
+        openingBalances = new HashMap<>();
+        jdbcTemplate.query(ACCOUNT_BALANCES, rs -> {
+            openingBalances.put(rs.getLong("id"), rs.getBigDecimal("balance"));
+        });
+        openingCompleted = jdbcTemplate.queryForObject(COMPLETED_PAYMENTS, Long.class);
+    }
+
+    /**
+     * Compares the current tables against the snapshot.
+     */
+    Result verify() {
+        Result result = new Result();
+        result.openingTotal = openingTotal;
+        result.closingTotal = jdbcTemplate.queryForObject(TOTAL_BALANCE, BigDecimal.class);
+        result.completedPayments = jdbcTemplate.queryForObject(COMPLETED_PAYMENTS, Long.class) - openingCompleted;
+        jdbcTemplate.query(ACCOUNT_LEDGER, rs -> {
+            BigDecimal balance = rs.getBigDecimal("balance");
+            BigDecimal opening = openingBalances.getOrDefault(rs.getLong("id"), BigDecimal.ZERO);
+            BigDecimal expected = opening.subtract(rs.getBigDecimal("sent")).add(rs.getBigDecimal("received"));
+            if (balance.compareTo(expected) != 0) {
+                result.mismatchedAccounts++;
+            }
+            if (balance.signum() < 0) {
+                result.negativeAccounts++;
+            }
+        });
+        return result;
+    }
+
+    static class Result {
+        BigDecimal openingTotal;
+        BigDecimal closingTotal;
+        long completedPayments;
+        int mismatchedAccounts;
+        int negativeAccounts;
+
+        boolean passed() {
+            return openingTotal.compareTo(closingTotal) == 0 && mismatchedAccounts == 0 && negativeAccounts == 0;
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("passed", passed());
+            summary.put("openingTotal", openingTotal.toPlainString());
+            summary.put("closingTotal", closingTotal.toPlainString());
+            summary.put("completedPayments", completedPayments);
+            summary.put("mismatchedAccounts", mismatchedAccounts);
+            summary.put("negativeAccounts", negativeAccounts);
+            return summary;
+        }
+
+        @Override
+        public String toString() {
+            return (passed() ? "PASSED" : "FAILED") + ": total " + openingTotal.toPlainString() + " -> "
+                    + closingTotal.toPlainString() + ", " + completedPayments + " completed payments, "
+                    + mismatchedAccounts + " accounts off their ledger, " + negativeAccounts + " negative";
+        }
+    }
+}
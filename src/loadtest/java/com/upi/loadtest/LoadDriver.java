@@ -0,0 +1,239 @@
+package com.upi.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upi.dto.auth.LoginRequest;
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.loadtest.DataSeeder.SeededUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load: each worker thread picks an operation by weight, sends it and waits for
+ * the answer before sending the next. Workers draw from their own seeded random, so the sequence
+ * of requests per worker is the same on every run with the same options.
+ */
+class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    enum Operation { SIGNIN, P2P, P2M, HISTORY, VALIDATE }
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final List<SeededUser> payers = new ArrayList<>();
+    private final List<SeededUser> merchants = new ArrayList<>();
+    private final List<SeededUser> everyone;
+
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong measured = new AtomicLong();
+
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+
+    LoadDriver(LoadTestOptions options, String baseUrl, List<SeededUser> users) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.everyone = users;
+        for (SeededUser user : users) {
+            (user.merchant ? merchants : payers).add(user);
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, options.threads / 4)))
+                .build();
+    }
+
+    /**
+     * Runs warmup and measurement and returns the merged stats per operation along with the measured seconds.
+     */
+    Map<Operation, OperationStats> run() throws InterruptedException {
+        long now = System.nanoTime();
+        measureStartNanos = now + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        measureEndNanos = options.requests > 0 ? Long.MAX_VALUE
+                : measureStartNanos + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        logger.info("Warming up for {}s with {} workers", options.warmupSeconds, options.threads);
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads);
+        List<Future<Map<Operation, OperationStats>>> results = new ArrayList<>();
+        for (int i = 0; i < options.threads; i++) {
+            SplittableRandom random = new SplittableRandom(options.seed * 31 + i);
+            results.add(workers.submit(() -> work(random)));
+        }
+        workers.shutdown();
+
+        Map<Operation, OperationStats> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            merged.put(operation, new OperationStats(operation.name()));
+        }
+        for (Future<Map<Operation, OperationStats>> result : results) {
+            try {
+                result.get().forEach((operation, stats) -> merged.get(operation).merge(stats));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load worker failed", e.getCause());
+            }
+        }
+        if (measureEndNanos == Long.MAX_VALUE) {
+            measureEndNanos = System.nanoTime();
+        }
+        return merged;
+    }
+
+    double measuredSeconds() {
+        return Math.max(1e-9, (measureEndNanos - measureStartNanos) / 1e9);
+    }
+
+    private Map<Operation, OperationStats> work(SplittableRandom random) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation.name()));
+        }
+        int totalWeight = options.signinWeight + options.paymentWeight + options.historyWeight + options.validateWeight;
+
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= measureEndNanos) {
+                break;
+            }
+            boolean measuring = start >= measureStartNanos;
+            if (measuring && options.requests > 0 && measured.getAndIncrement() >= options.requests) {
+                break;
+            }
+
+            Operation operation = pick(random, totalWeight);
+            HttpRequest request = build(operation, random);
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long latency = System.nanoTime() - start;
+            if (measuring && start < measureEndNanos) {
+                stats.get(operation).record(latency, status);
+            }
+        }
+        return stats;
+    }
+
+    private Operation pick(SplittableRandom random, int totalWeight) {
+        int roll = random.nextInt(totalWeight);
+        if ((roll -= options.signinWeight) < 0) {
+            return Operation.SIGNIN;
+        }
+        if ((roll -= options.paymentWeight) < 0) {
+            return random.nextDouble() < options.p2mShare ? Operation.P2M : Operation.P2P;
+        }
+        if (roll - options.historyWeight < 0) {
+            return Operation.HISTORY;
+        }
+        return Operation.VALIDATE;
+    }
+
+    private HttpRequest build(Operation operation, SplittableRandom random) {
+        switch (operation) {
+            case SIGNIN: {
+                SeededUser user = everyone.get(random.nextInt(everyone.size()));
+                return post("/auth/signin", null, new LoginRequest(user.username, DataSeeder.PASSWORD));
+            }
+            case P2P:
+            case P2M: {
+                SeededUser sender = payers.get(random.nextInt(payers.size()));
+                SeededUser receiver;
+                if (operation == Operation.P2M) {
+                    receiver = merchants.get(random.nextInt(merchants.size()));
+                } else {
+                    // No extra draw unless a hot mix is asked for, so seeded runs of the default mix replay unchanged
+                    double roll = options.hotSenderShare + options.hotPairShare > 0 ? random.nextDouble() : 1.0;
+                    if (roll < options.hotSenderShare) {
+                        // Payer 0 is the hot sender; everyone else receives from it
+                        sender = payers.get(0);
+                    } else if (roll < options.hotSenderShare + options.hotPairShare) {
+                        // Payers 1..2 * hotPairs pay their partner in either direction, so A->B meets B->A
+                        int pair = random.nextInt(options.hotPairs);
+                        boolean forward = random.nextBoolean();
+                        sender = payers.get(1 + 2 * pair + (forward ? 0 : 1));
+                        receiver = payers.get(1 + 2 * pair + (forward ? 1 : 0));
+                        return payment(operation, sender, receiver, random);
+                    }
+                    do {
+                        receiver = payers.get(random.nextInt(payers.size()));
+                    } while (receiver == sender && payers.size() > 1);
+                }
+                return payment(operation, sender, receiver, random);
+            }
+            case HISTORY: {
+                SeededUser user = everyone.get(random.nextInt(everyone.size()));
+                return get("/transactions/cursor?size=" + options.historyPageSize, user.token);
+            }
+            default: {
+                SeededUser user = everyone.get(random.nextInt(everyone.size()));
+                String address = random.nextDouble() < options.unknownVpaShare
+                        ? "ltghost" + random.nextInt(1_000_000) + "@" + DataSeeder.HANDLE
+                        : everyone.get(random.nextInt(everyone.size())).vpa;
+                return get("/vpas/validate/" + address, user.token);
+            }
+        }
+    }
+
+    private HttpRequest payment(Operation operation, SeededUser sender, SeededUser receiver, SplittableRandom random) {
+        TransactionRequest payment = TransactionRequest.builder()
+                .senderVpa(sender.vpa)
+                .receiverVpa(receiver.vpa)
+                .amount(BigDecimal.valueOf(random.nextInt(options.minAmount, options.maxAmount + 1)))
+                .upiPin(DataSeeder.UPI_PIN)
+                .description("load test")
+                .transactionType(operation.name())
+                .build();
+        return post("/transactions", sender.token, payment);
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        String json;
+        try {
+            json = mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.upi.loadtest;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Knobs for a load test run, read as {@code loadtest.*} properties so they can be passed as
+ * {@code --loadtest.users=500} next to any application override.
+ */
+public class LoadTestOptions {
+
+    final long seed;
+    final int users;
+    final int merchants;
+    final int seedThreads;
+    final int threads;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final long requests;
+
+    // Relative weights of each operation in the mix
+    final int signinWeight;
+    final int paymentWeight;
+    final int historyWeight;
+    final int validateWeight;
+
+    // Share of payments that go to a merchant VPA; merchants are few, so these pile onto hot accounts
+    final double p2mShare;
+    // Share of P2P payments sent by one hot payer, and share sent back and forth within a few fixed payer pairs
+    final double hotSenderShare;
+    final double hotPairShare;
+    final int hotPairs;
+    final int minAmount;
+    final int maxAmount;
+    final int historyPageSize;
+    // Share of VPA validations for addresses that do not exist
+    final double unknownVpaShare;
+
+    final String resultFile;
+
+    LoadTestOptions(Environment env) {
+        this.seed = env.getProperty("loadtest.seed", Long.class, 42L);
+        this.users = env.getProperty("loadtest.users", Integer.class, 200);
+        this.merchants = env.getProperty("loadtest.merchants", Integer.class, 10);
+        this.seedThreads = env.getProperty("loadtest.seedThreads", Integer.class, 4);
+        this.threads = env.getProperty("loadtest.threads", Integer.class, 16);
+        this.warmupSeconds = env.getProperty("loadtest.warmupSeconds", Integer.class, 10);
+        this.durationSeconds = env.getProperty("loadtest.durationSeconds", Integer.class, 60);
+        this.requests = env.getProperty("loadtest.requests", Long.class, 0L);
+        this.signinWeight = env.getProperty("loadtest.mix.signin", Integer.class, 5);
+        this.paymentWeight = env.getProperty("loadtest.mix.payment", Integer.class, 40);
+        this.historyWeight = env.getProperty("loadtest.mix.history", Integer.class, 40);
+        this.validateWeight = env.getProperty("loadtest.mix.validate", Integer.class, 15);
+        this.p2mShare = env.getProperty("loadtest.p2mShare", Double.class, 0.3);
+        this.hotSenderShare = env.getProperty("loadtest.hotSenderShare", Double.class, 0.0);
+        this.hotPairShare = env.getProperty("loadtest.hotPairShare", Double.class, 0.0);
+        this.hotPairs = env.getProperty("loadtest.hotPairs", Integer.class, 1);
+        this.minAmount = env.getProperty("loadtest.minAmount", Integer.class, 1);
+        this.maxAmount = env.getProperty("loadtest.maxAmount", Integer.class, 100);
+        this.historyPageSize = env.getProperty("loadtest.historyPageSize", Integer.class, 20);
+        this.unknownVpaShare = env.getProperty("loadtest.unknownVpaShare", Double.class, 0.2);
+        this.resultFile = env.getProperty("loadtest.resultFile", "target/loadtest-result.json");
+
+        if (users < 2 || merchants < 1 || merchants >= users) {
+            throw new IllegalArgumentException("loadtest.users must be at least 2 and loadtest.merchants between 1 and users - 1");
+        }
+        if (threads < 1 || seedThreads < 1) {
+            throw new IllegalArgumentException("loadtest.threads and loadtest.seedThreads must be positive");
+        }
+        if (signinWeight < 0 || paymentWeight < 0 || historyWeight < 0 || validateWeight < 0
+                || signinWeight + paymentWeight + historyWeight + validateWeight == 0) {
+            throw new IllegalArgumentException("loadtest.mix.* weights must be non-negative and not all zero");
+        }
+        if (hotSenderShare < 0 || hotPairShare < 0 || hotSenderShare + hotPairShare > 1 || hotPairs < 1
+                || users - merchants < 2 * hotPairs + 1) {
+            throw new IllegalArgumentException("loadtest.hotSenderShare and loadtest.hotPairShare must add up to at most 1, "
+                    + "and loadtest.hotPairs needs 2 * hotPairs + 1 payers");
+        }
+        if (minAmount < 1 || maxAmount < minAmount) {
+            throw new IllegalArgumentException("loadtest.minAmount must be at least 1 and not above loadtest.maxAmount");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + seed + ", users=" + users + ", merchants=" + merchants + ", threads=" + threads
+                + ", warmup=" + warmupSeconds + "s, " + (requests > 0 ? "requests=" + requests : "duration=" + durationSeconds + "s")
+                + ", mix(signin/payment/history/validate)=" + signinWeight + "/" + paymentWeight + "/" + historyWeight + "/" + validateWeight
+                + ", p2mShare=" + p2mShare + ", hotSenderShare=" + hotSenderShare + ", hotPairShare=" + hotPairShare
+                + " over " + hotPairs + " pairs, amount=" + minAmount + ".." + maxAmount;
+    }
+}
@@ -0,0 +1,125 @@
+package com.upi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.upi.UpiApplication;
+import com.upi.loadtest.DataSeeder.SeededUser;
+import com.upi.loadtest.LoadDriver.Operation;
+import com.upi.lock.AccountLockManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test against the in-memory H2 setup of application.properties. Starts the
+ * application on a random port, seeds users through the services, drives a mixed HTTP workload
+ * and reports throughput, latency percentiles, error rates and a money-conservation check.
+ *
+ * <pre>
+ * mvn -P loadtest verify -DskipTests -Dloadtest.args="--loadtest.users=500 --loadtest.durationSeconds=120"
+ * </pre>
+ *
+ * Any application property can be overridden the same way, e.g. {@code --upi.app.rateLimit.enabled=true}.
+ * Exits with status 1 when the ledger check fails.
+ */
+public class LoadTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final int HOT_ACCOUNTS = 5;
+
+    // Applied unless given on the command line: a load test wants neither SQL echo nor a single-IP rate limit,
+    // and as a single instance can use the VPA Bloom filter
+    private static final String[][] DEFAULTS = {
+            {"server.port", "0"},
+            {"management.server.port", "0"},
+            {"spring.jpa.show-sql", "false"},
+            {"spring.h2.console.enabled", "false"},
+            {"logging.level.com.upi", "INFO"},
+            {"upi.app.rateLimit.enabled", "false"},
+            {"upi.app.vpaBloom.enabled", "true"},
+            {"upi.app.vpaBloom.singleInstance", "true"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        for (String[] entry : DEFAULTS) {
+            if (System.getProperty(entry[0]) == null) {
+                System.setProperty(entry[0], entry[1]);
+            }
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(UpiApplication.class, args);
+        boolean passed;
+        try {
+            passed = run(context);
+        } finally {
+            context.close();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean run(ConfigurableApplicationContext context) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(context.getEnvironment());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port
+                + context.getEnvironment().getProperty("server.servlet.context-path", "") + "/api";
+        logger.info("Load test against {} with {}", baseUrl, options);
+
+        long seedStart = System.nanoTime();
+        List<SeededUser> users = new DataSeeder(context).seed(options.users, options.merchants, options.seedThreads);
+        logger.info("Seeded {} users ({} merchants) in {} ms", users.size(), options.merchants,
+                (System.nanoTime() - seedStart) / 1_000_000);
+
+        LedgerCheck ledger = new LedgerCheck(context.getBean(JdbcTemplate.class));
+        ledger.snapshot();
+
+        LoadDriver driver = new LoadDriver(options, baseUrl, users);
+        Map<Operation, OperationStats> stats = driver.run();
+        double seconds = driver.measuredSeconds();
+        LedgerCheck.Result ledgerResult = ledger.verify();
+
+        OperationStats total = new OperationStats("TOTAL");
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n%s%n", options));
+        report.append(String.format("Measured %.1f s%n%s%n", seconds, OperationStats.header()));
+        for (OperationStats operation : stats.values()) {
+            report.append(operation.format(seconds)).append(System.lineSeparator());
+            total.merge(operation);
+        }
+        report.append(total.format(seconds)).append(System.lineSeparator());
+        report.append("Ledger ").append(ledgerResult).append(System.lineSeparator());
+        List<AccountLockManager.HotAccount> hotAccounts = context.getBean(AccountLockManager.class).getHotAccounts(HOT_ACCOUNTS);
+        report.append("Most contended accounts (id, contended acquisitions, total wait us):");
+        hotAccounts.forEach(account -> report.append(String.format(" %d/%d/%d", account.getAccountId(),
+                account.getContendedAcquisitions(), account.getTotalWaitMicros())));
+        report.append(System.lineSeparator());
+        System.out.println(report);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options.toString());
+        result.put("measuredSeconds", seconds);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> operations.put(operation.name(), operationStats.summary(seconds)));
+        operations.put(total.name, total.summary(seconds));
+        result.put("operations", operations);
+        result.put("ledger", ledgerResult.summary());
+        result.put("hotAccounts", hotAccounts);
+
+        File resultFile = new File(options.resultFile);
+        if (resultFile.getParentFile() != null) {
+            resultFile.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile, result);
+        logger.info("Results written to {}", resultFile.getAbsolutePath());
+
+        return ledgerResult.passed();
+    }
+}
@@ -0,0 +1,116 @@
+package com.upi.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies and outcomes of one operation type. Every sample is kept so percentiles are exact;
+ * each worker fills its own instance and they are merged once the run is over.
+ */
+class OperationStats {
+
+    final String name;
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long ok;
+    private long clientErrors;
+    private long throttled;
+    private long serverErrors;
+    private long ioErrors;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one request; a status of 0 means it failed before a response arrived.
+     */
+    void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status == 0) {
+            ioErrors++;
+        } else if (status < 400) {
+            ok++;
+        } else if (status == 429) {
+            throttled++;
+        } else if (status < 500) {
+            clientErrors++;
+        } else {
+            serverErrors++;
+        }
+    }
+
+    void merge(OperationStats other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        ok += other.ok;
+        clientErrors += other.clientErrors;
+        throttled += other.throttled;
+        serverErrors += other.serverErrors;
+        ioErrors += other.ioErrors;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getErrors() {
+        return count - ok;
+    }
+
+    double getErrorRate() {
+        return count == 0 ? 0 : (double) getErrors() / count;
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds. Sorts the samples, so call after the run.
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, count);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return latencies[Math.max(0, Math.min(count, rank) - 1)] / 1_000_000.0;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("throughputPerSecond", round(count / seconds));
+        summary.put("p50Ms", round(percentileMillis(50)));
+        summary.put("p99Ms", round(percentileMillis(99)));
+        summary.put("p999Ms", round(percentileMillis(99.9)));
+        summary.put("maxMs", round(percentileMillis(100)));
+        summary.put("ok", ok);
+        summary.put("clientErrors", clientErrors);
+        summary.put("throttled", throttled);
+        summary.put("serverErrors", serverErrors);
+        summary.put("ioErrors", ioErrors);
+        summary.put("errorRate", round(getErrorRate()));
+        return summary;
+    }
+
+    String format(double seconds) {
+        return String.format("%-10s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%  (4xx=%d 429=%d 5xx=%d io=%d)",
+                name, count, count / seconds, percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                percentileMillis(100), getErrorRate() * 100, clientErrors, throttled, serverErrors, ioErrors);
+    }
+
+    static String header() {
+        return String.format("%-10s %9s %10s %9s %9s %9s %9s %8s",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.upi.cache;
+
+import com.upi.dto.transaction.TransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of recent idempotent payment requests, keyed by user and Idempotency-Key.
+ *
+ * The first request for a key claims it and executes; concurrent duplicates wait on the
+ * claimant's result instead of running the payment again. Completed results are kept for
+ * the TTL, and the map is capped at a fixed number of keys.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long waitTimeoutMs;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyCache(@Value("${upi.app.idempotency.maxEntries:100000}") int maxEntries,
+                            @Value("${upi.app.idempotency.ttlMs:86400000}") long ttlMs,
+                            @Value("${upi.app.idempotency.waitTimeoutMs:30000}") long waitTimeoutMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Claims the key for the caller. Returns null if the caller now owns it and must call
+     * {@link #complete} or {@link #fail}; otherwise returns the earlier attempt's result,
+     * waiting for it if that attempt is still in flight.
+     */
+    public TransactionResponse claimOrAwait(String key, String requestHash) {
+        Entry fresh = new Entry(requestHash);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                misses.increment();
+                trimIfFull();
+                return null;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.requestHash.equals(requestHash)) {
+                throw new RuntimeException("Idempotency-Key was already used for a different request");
+            }
+            hits.increment();
+            return await(existing);
+        }
+    }
+
+    public void complete(String key, TransactionResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.expiresAt = System.currentTimeMillis() + ttlMs;
+            entry.result.complete(response);
+        }
+    }
+
+    /**
+     * Releases the key after a failed attempt. Waiters see the same failure; later retries execute again.
+     */
+    public void fail(String key, RuntimeException e) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.result.completeExceptionally(e);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private TransactionResponse await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void trimIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Expired entries go first, then any completed ones; in-flight claims are never dropped
+        for (boolean expiredOnly : new boolean[]{true, false}) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext() && entries.size() > maxEntries) {
+                Entry entry = it.next().getValue();
+                if (entry.result.isDone() && (!expiredOnly || entry.isExpired(now))) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String requestHash;
+        private final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE; // In flight until completed
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.upi.cache;
+
+import com.upi.dto.transaction.TransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user ring buffer of the most recent transactions, used by the home screen.
+ *
+ * Buffers are filled from the database on a miss and then kept current by {@link #record} when a
+ * payment commits on this node, or dropped by {@link #invalidate} when a change cannot be recorded,
+ * such as a payment failed in bulk. Payments committed on other nodes never reach a buffer, so each
+ * one is reloaded once it is older than the max age.
+ *
+ * Reads and writes take no shared lock. Idle and expired buffers are dropped by {@link #evictIdle()},
+ * which only the scheduled sweep calls; once maxUsers buffers exist, new users are served from the
+ * database without a buffer until the sweep frees room.
+ */
+@Component
+public class RecentTransactionCache {
+
+    private static final int STAMP_STRIPES = 64;
+
+    private final int capacity;
+    private final int maxUsers;
+    private final long idleTimeoutMs;
+    private final long maxAgeMs;
+
+    private final ConcurrentHashMap<Long, RingBuffer> buffers = new ConcurrentHashMap<>();
+
+    // Bumped on every recorded write so a load that raced with a payment is not installed stale
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STAMP_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentTransactionCache(@Value("${upi.app.recentTransactions.capacity:20}") int capacity,
+                                  @Value("${upi.app.recentTransactions.maxUsers:10000}") int maxUsers,
+                                  @Value("${upi.app.recentTransactions.idleTimeoutMs:600000}") long idleTimeoutMs,
+                                  @Value("${upi.app.recentTransactions.maxAgeMs:30000}") long maxAgeMs) {
+        this.capacity = capacity;
+        this.maxUsers = maxUsers;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Returns the user's newest transactions, loading the buffer with {@code loader} on a miss.
+     * The loader is called with the buffer capacity and must return rows newest first.
+     */
+    public List<TransactionResponse> getRecent(Long userId, int limit, Loader loader) {
+        if (limit > capacity) {
+            // Larger than what we keep per user, so the cache cannot answer it
+            misses.increment();
+            return loader.load(limit);
+        }
+
+        RingBuffer buffer = buffers.get(userId);
+        if (buffer != null && System.currentTimeMillis() - buffer.loadedAt < maxAgeMs) {
+            hits.increment();
+            return buffer.newest(limit);
+        }
+        misses.increment();
+
+        long stamp = writeStamps.get(stripe(userId));
+        List<TransactionResponse> loaded = loader.load(capacity);
+        install(userId, loaded, stamp);
+
+        return loaded.size() > limit ? new ArrayList<>(loaded.subList(0, limit)) : loaded;
+    }
+
+    /**
+     * Records a committed transaction for a user so the next read sees it without a database hit.
+     */
+    public void record(Long userId, TransactionResponse transaction) {
+        writeStamps.incrementAndGet(stripe(userId));
+        RingBuffer buffer = buffers.get(userId);
+        if (buffer != null) {
+            buffer.push(transaction);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        writeStamps.incrementAndGet(stripe(userId));
+        buffers.remove(userId);
+    }
+
+    /**
+     * Drops buffers that were not read or written for the idle timeout, or are past their max age.
+     */
+    @Scheduled(fixedDelayString = "${upi.app.recentTransactions.evictionIntervalMs:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        buffers.values().removeIf(buffer -> {
+            boolean evict = now - buffer.lastAccess >= idleTimeoutMs || now - buffer.loadedAt >= maxAgeMs;
+            if (evict) {
+                evictions.increment();
+            }
+            return evict;
+        });
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return buffers.size();
+    }
+
+    private void install(Long userId, List<TransactionResponse> loaded, long stamp) {
+        RingBuffer buffer = new RingBuffer(capacity);
+        for (int i = loaded.size() - 1; i >= 0; i--) {
+            buffer.push(loaded.get(i));
+        }
+
+        if (writeStamps.get(stripe(userId)) != stamp || (buffers.size() >= maxUsers && !buffers.containsKey(userId))) {
+            return;
+        }
+        buffers.put(userId, buffer);
+        // A write between the check and the put may have missed our buffer; take it back
+        if (writeStamps.get(stripe(userId)) != stamp) {
+            buffers.remove(userId, buffer);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (STAMP_STRIPES - 1));
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        List<TransactionResponse> load(int limit);
+    }
+
+    /**
+     * Fixed-size buffer holding the newest transactions; pushing onto a full buffer overwrites the oldest,
+     * pushing a transaction already held replaces it.
+     */
+    private static final class RingBuffer {
+
+        private final TransactionResponse[] slots;
+        private int head; // Index of the next slot to write
+        private int count;
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile long lastAccess = loadedAt;
+
+        RingBuffer(int capacity) {
+            this.slots = new TransactionResponse[capacity];
+        }
+
+        synchronized void push(TransactionResponse transaction) {
+            for (int i = 0; i < count; i++) {
+                int slot = Math.floorMod(head - 1 - i, slots.length);
+                TransactionResponse existing = slots[slot];
+                if (existing.getId() != null && existing.getId().equals(transaction.getId())) {
+                    // A later state of a payment already held, e.g. PROCESSING now COMPLETED; it keeps its place
+                    slots[slot] = transaction;
+                    return;
+                }
+            }
+            slots[head] = transaction;
+            head = (head + 1) % slots.length;
+            count = Math.min(count + 1, slots.length);
+            lastAccess = System.currentTimeMillis();
+        }
+
+        synchronized List<TransactionResponse> newest(int limit) {
+            int n = Math.min(limit, count);
+            List<TransactionResponse> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                result.add(slots[Math.floorMod(head - 1 - i, slots.length)]);
+            }
+            lastAccess = System.currentTimeMillis();
+            return result;
+        }
+    }
+}
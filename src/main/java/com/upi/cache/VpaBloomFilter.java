@@ -0,0 +1,238 @@
+package com.upi.cache;
+
+import com.upi.repository.VirtualPaymentAddressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over every registered VPA address, so lookups of addresses that certainly do not
+ * exist are answered without a query.
+ *
+ * Built by a streaming scan once the application is ready and rebuilt periodically, since a Bloom
+ * filter cannot forget deleted addresses. Until the first build completes every address "might" exist.
+ *
+ * Only addresses registered on this node are added between rebuilds, so a filter miss is only
+ * trustworthy when every VPA is created here. The filter is therefore off unless
+ * {@code upi.app.vpaBloom.enabled} is set, and refuses to start unless the deployment also declares
+ * with {@code upi.app.vpaBloom.singleInstance} that no other instance registers VPAs.
+ */
+@Component
+public class VpaBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VpaBloomFilter.class);
+
+    private static final long MIN_EXPECTED_ADDRESSES = 10000;
+
+    @Autowired
+    private VirtualPaymentAddressRepository vpaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${upi.app.vpaBloom.enabled:false}")
+    private boolean enabled;
+
+    @Value("${upi.app.vpaBloom.singleInstance:false}")
+    private boolean singleInstance;
+
+    @Value("${upi.app.vpaBloom.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile Filter current;
+
+    // Set while a rebuild scans, so addresses registered meanwhile reach the new filter too
+    private volatile Filter building;
+
+    private final LongAdder rejections = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !singleInstance) {
+            throw new IllegalStateException("upi.app.vpaBloom.enabled requires upi.app.vpaBloom.singleInstance=true; "
+                    + "with several instances, VPAs registered elsewhere would be rejected until the next rebuild");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${upi.app.vpaBloom.rebuildIntervalMs:3600000}",
+            initialDelayString = "${upi.app.vpaBloom.rebuildIntervalMs:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Twice the current count leaves headroom for addresses registered until the next rebuild
+        long expected = Math.max(MIN_EXPECTED_ADDRESSES, vpaRepository.count() * 2);
+        Filter filter = new Filter(expected, falsePositiveRate);
+        building = filter;
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<String> addresses = vpaRepository.streamAllAddresses()) {
+                    addresses.forEach(filter::add);
+                }
+            });
+            current = filter;
+            logger.info("VPA Bloom filter rebuilt with {} addresses, {} KiB, in {} ms",
+                    filter.insertions.sum(), filter.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Adds the address now and again once the surrounding transaction commits, so a rebuild whose
+     * scan ran before the commit cannot drop it.
+     */
+    public void add(String address) {
+        if (!enabled) {
+            return;
+        }
+        addNow(address);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(address);
+                }
+            });
+        }
+    }
+
+    private void addNow(String address) {
+        // Read building before current: rebuild publishes current before clearing building, so an add that
+        // finds no build in progress is guaranteed to see the newly published filter
+        Filter next = building;
+        if (next != null) {
+            next.add(address);
+        }
+        Filter filter = current;
+        if (filter != null) {
+            filter.add(address);
+        }
+    }
+
+    /**
+     * False means the address is definitely not registered; true means it may be.
+     */
+    public boolean mightContain(String address) {
+        Filter filter = current;
+        if (filter == null || filter.mightContain(address)) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getSizeInBytes() {
+        Filter filter = current;
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    /**
+     * False-positive rate expected for the number of addresses inserted so far.
+     */
+    public double getExpectedFalsePositiveRate() {
+        Filter filter = current;
+        return filter == null ? 1.0 : filter.expectedFalsePositiveRate();
+    }
+
+    public double getConfiguredFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private static final class Filter {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final LongAdder insertions = new LongAdder();
+
+        Filter(long expectedInsertions, double fpp) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void add(String address) {
+            long hash = hash(address);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long prev;
+                do {
+                    prev = words.get(word);
+                } while ((prev & mask) == 0 && !words.compareAndSet(word, prev, prev | mask));
+            }
+            insertions.increment();
+        }
+
+        boolean mightContain(String address) {
+            long hash = hash(address);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        double expectedFalsePositiveRate() {
+            double n = insertions.sum();
+            return Math.pow(1 - Math.exp(-hashCount * n / bitCount), hashCount);
+        }
+
+        /**
+         * FNV-1a over the UTF-16 code units followed by the MurmurHash3 finalizer.
+         */
+        private static long hash(String s) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93fe53a87cdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
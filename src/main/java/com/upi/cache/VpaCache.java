@@ -0,0 +1,140 @@
+package com.upi.cache;
+
+import com.upi.dto.vpa.VpaSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Address to {@link VpaSummary} cache in front of the VPA repository. Unknown addresses are cached
+ * too, with a shorter TTL, so repeated lookups of a missing VPA do not reach the database.
+ *
+ * VPA writes on this node invalidate entries explicitly; the TTL bounds staleness from other nodes.
+ */
+@Component
+public class VpaCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so that a load racing with a VPA change is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VpaCache(@Value("${upi.app.vpaCache.maxEntries:100000}") int maxEntries,
+                    @Value("${upi.app.vpaCache.ttlMs:300000}") long ttlMs,
+                    @Value("${upi.app.vpaCache.negativeTtlMs:30000}") long negativeTtlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+    }
+
+    public Optional<VpaSummary> get(String address, Function<String, Optional<VpaSummary>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(address);
+        if (entry != null && now < entry.expiresAt) {
+            hits.increment();
+            return Optional.ofNullable(entry.vpa);
+        }
+        misses.increment();
+
+        long stamp = invalidations.get();
+        Optional<VpaSummary> loaded = loader.apply(address);
+        if (invalidations.get() == stamp) {
+            long ttl = loaded.isPresent() ? ttlMs : negativeTtlMs;
+            Entry loadedEntry = new Entry(loaded.orElse(null), now + ttl);
+            entries.put(address, loadedEntry);
+            // An invalidation between the check and the put may have run its remove before our put; take it back
+            if (invalidations.get() != stamp) {
+                entries.remove(address, loadedEntry);
+            } else {
+                trimIfFull(now);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the addresses now and again once the surrounding transaction commits, so a lookup
+     * between the write and the commit cannot re-cache the old state.
+     */
+    public void invalidate(String... addresses) {
+        evict(addresses);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(addresses);
+                }
+            });
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(String... addresses) {
+        invalidations.incrementAndGet();
+        for (String address : addresses) {
+            entries.remove(address);
+        }
+    }
+
+    private void trimIfFull(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        // Trim to 90% so the scan is paid once per many inserts, not on every miss at the cap.
+        // Expired entries go first, then whatever the iterator reaches.
+        int target = maxEntries - maxEntries / 10;
+        for (boolean expiredOnly : new boolean[]{true, false}) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext() && entries.size() > target) {
+                Entry entry = it.next().getValue();
+                if (!expiredOnly || now >= entry.expiresAt) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final VpaSummary vpa; // Null for an address known not to exist
+        private final long expiresAt;
+
+        Entry(VpaSummary vpa, long expiresAt) {
+            this.vpa = vpa;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
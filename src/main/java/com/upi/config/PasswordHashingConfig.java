@@ -0,0 +1,53 @@
+package com.upi.config;
+
+import com.upi.security.hashing.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${upi.app.hashing.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Value("${upi.app.hashing.login.threads:2}")
+    private int loginThreads;
+
+    @Value("${upi.app.hashing.login.queueCapacity:64}")
+    private int loginQueueCapacity;
+
+    @Value("${upi.app.hashing.login.timeoutMs:2000}")
+    private long loginTimeoutMs;
+
+    @Value("${upi.app.hashing.pin.threads:4}")
+    private int pinThreads;
+
+    @Value("${upi.app.hashing.pin.queueCapacity:256}")
+    private int pinQueueCapacity;
+
+    @Value("${upi.app.hashing.pin.timeoutMs:2000}")
+    private long pinTimeoutMs;
+
+    /**
+     * Hashes user passwords for signup and login. Kept apart from the PIN pool so a burst of
+     * logins cannot take capacity away from payments.
+     */
+    @Bean
+    @Primary
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder("login", new BCryptPasswordEncoder(bcryptStrength),
+                loginThreads, loginQueueCapacity, loginTimeoutMs);
+    }
+
+    /**
+     * Hashes and checks UPI PINs on the payment path.
+     */
+    @Bean
+    public BoundedPasswordEncoder upiPinEncoder() {
+        return new BoundedPasswordEncoder("pin", new BCryptPasswordEncoder(bcryptStrength),
+                pinThreads, pinQueueCapacity, pinTimeoutMs);
+    }
+}
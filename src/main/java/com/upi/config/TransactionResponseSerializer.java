@@ -0,0 +1,76 @@
+package com.upi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.upi.dto.transaction.TransactionResponse;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for the most frequently encoded DTO. Writes the same JSON as the
+ * default bean serializer, but with pre-encoded field names and direct getter calls instead of
+ * reflective property access.
+ */
+@JsonComponent
+public class TransactionResponseSerializer extends JsonSerializer<TransactionResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString UTR_NUMBER = new SerializedString("utrNumber");
+    private static final SerializableString SENDER_VPA = new SerializedString("senderVpa");
+    private static final SerializableString RECEIVER_VPA = new SerializedString("receiverVpa");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString FAILURE_REASON = new SerializedString("failureReason");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString COMPLETED_AT = new SerializedString("completedAt");
+
+    @Override
+    public void serialize(TransactionResponse transaction, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException {
+        gen.writeStartObject(transaction);
+
+        gen.writeFieldName(ID);
+        if (transaction.getId() != null) {
+            gen.writeNumber(transaction.getId());
+        } else {
+            gen.writeNull();
+        }
+        writeString(gen, UTR_NUMBER, transaction.getUtrNumber());
+        writeString(gen, SENDER_VPA, transaction.getSenderVpa());
+        writeString(gen, RECEIVER_VPA, transaction.getReceiverVpa());
+        gen.writeFieldName(AMOUNT);
+        gen.writeNumber(transaction.getAmount());
+        writeString(gen, DESCRIPTION, transaction.getDescription());
+        writeString(gen, TYPE, transaction.getType());
+        writeString(gen, STATUS, transaction.getStatus());
+        writeString(gen, FAILURE_REASON, transaction.getFailureReason());
+        writeDateTime(gen, CREATED_AT, transaction.getCreatedAt());
+        writeDateTime(gen, COMPLETED_AT, transaction.getCompletedAt());
+
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value);
+    }
+
+    private static void writeDateTime(JsonGenerator gen, SerializableString name, LocalDateTime value)
+            throws IOException {
+        gen.writeFieldName(name);
+        if (value != null) {
+            // Same ISO-8601 text the JavaTimeModule writes with timestamps disabled
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        } else {
+            gen.writeNull();
+        }
+    }
+}
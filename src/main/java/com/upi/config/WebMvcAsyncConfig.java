@@ -0,0 +1,42 @@
+package com.upi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${upi.app.mvcAsync.threads:8}")
+    private int threads;
+
+    @Value("${upi.app.mvcAsync.queueCapacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Bounded pool for StreamingResponseBody and Callable handlers such as the transaction export.
+     * Boot's own applicationTaskExecutor backs off because paymentExecutor is defined, which would
+     * leave MVC on an unbounded SimpleAsyncTaskExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // The timeout itself comes from spring.mvc.async.request-timeout
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+}
@@ -1,7 +1,12 @@
 package com.upi.controller;
 
+import com.upi.dto.transaction.BulkPayoutRequest;
+import com.upi.dto.transaction.BulkPayoutResponse;
+import com.upi.dto.transaction.PaymentAuthorizationRequest;
+import com.upi.dto.transaction.PaymentAuthorizationResponse;
 import com.upi.dto.transaction.TransactionRequest;
 import com.upi.dto.transaction.TransactionResponse;
+import com.upi.dto.transaction.TransactionSlice;
 import com.upi.model.User;
 import com.upi.security.services.UserDetailsImpl;
 import com.upi.service.TransactionService;
@@ -13,11 +18,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -35,14 +44,54 @@ public class TransactionController {
     @PostMapping
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Initiate a transaction", 
-               description = "Initiates a new transaction from the authenticated user's VPA")
+               description = "Initiates a new transaction from the authenticated user's VPA. " +
+                       "Retries carrying the same Idempotency-Key return the original transaction instead of paying again.")
     public ResponseEntity<TransactionResponse> initiateTransaction(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody TransactionRequest transactionRequest) {
         User currentUser = getCurrentUser();
-        TransactionResponse transaction = transactionService.initiateTransaction(currentUser, transactionRequest);
+        TransactionResponse transaction = StringUtils.hasText(idempotencyKey)
+                ? transactionService.initiateTransaction(currentUser, transactionRequest, idempotencyKey)
+                : transactionService.initiateTransaction(currentUser, transactionRequest);
         return ResponseEntity.ok(transaction);
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Initiate a bulk payout", 
+               description = "Pays up to 10,000 receivers from one of the authenticated user's VPAs. " +
+                       "Each leg reports its own status; legs that cannot be paid fail without affecting the rest.")
+    public ResponseEntity<BulkPayoutResponse> initiateBulkPayout(
+            @Valid @RequestBody BulkPayoutRequest bulkPayoutRequest) {
+        User currentUser = getCurrentUser();
+        BulkPayoutResponse payout = transactionService.initiateBulkPayout(currentUser, bulkPayoutRequest);
+        return ResponseEntity.ok(payout);
+    }
+
+    @PostMapping("/authorizations")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Authorize small payments", 
+               description = "Checks the UPI PIN once and returns a short-lived token that can pay a few small amounts " +
+                       "from the same VPA and device without entering the PIN again.")
+    public ResponseEntity<PaymentAuthorizationResponse> authorizePayments(
+            @Valid @RequestBody PaymentAuthorizationRequest authorizationRequest) {
+        User currentUser = getCurrentUser();
+        PaymentAuthorizationResponse authorization = transactionService.authorizePayments(currentUser, authorizationRequest);
+        return ResponseEntity.ok(authorization);
+    }
+
+    @PostMapping("/async")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Submit a transaction for processing", 
+               description = "Accepts a new transaction from the authenticated user's VPA and processes it in the background. " +
+                       "Poll GET /api/transactions/{utr} for the final status.")
+    public ResponseEntity<TransactionResponse> submitTransaction(
+            @Valid @RequestBody TransactionRequest transactionRequest) {
+        User currentUser = getCurrentUser();
+        TransactionResponse transaction = transactionService.submitTransaction(currentUser, transactionRequest);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transaction);
+    }
+
     @GetMapping("/{utr}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Get transaction by UTR", 
@@ -117,6 +166,19 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Export all transactions", 
+               description = "Streams every transaction (sent or received) of the authenticated user as newline-delimited JSON, " +
+                       "newest first. The response is written while rows are read, so it suits full-history syncs.")
+    public ResponseEntity<StreamingResponseBody> exportUserTransactions() {
+        User currentUser = getCurrentUser();
+        StreamingResponseBody body = out -> transactionService.exportUserTransactions(currentUser, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/vpa/{vpaAddress}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Get transactions by VPA", 
@@ -136,6 +198,56 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get all transactions by cursor", 
+               description = "Retrieves a slice of transactions (sent or received) for the authenticated user, newest first. " +
+                       "Pass the returned nextCursor to fetch the following slice.")
+    public ResponseEntity<TransactionSlice> getUserTransactionSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        User currentUser = getCurrentUser();
+        TransactionSlice transactions = transactionService.getUserTransactionSlice(currentUser, cursor, size);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/sent/cursor")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get sent transactions by cursor", 
+               description = "Retrieves a slice of transactions sent from the authenticated user's VPAs, newest first")
+    public ResponseEntity<TransactionSlice> getSentTransactionSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        User currentUser = getCurrentUser();
+        TransactionSlice transactions = transactionService.getSentTransactionSlice(currentUser, cursor, size);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/received/cursor")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get received transactions by cursor", 
+               description = "Retrieves a slice of transactions received by the authenticated user's VPAs, newest first")
+    public ResponseEntity<TransactionSlice> getReceivedTransactionSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        User currentUser = getCurrentUser();
+        TransactionSlice transactions = transactionService.getReceivedTransactionSlice(currentUser, cursor, size);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/vpa/{vpaAddress}/cursor")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get transactions by VPA by cursor", 
+               description = "Retrieves a slice of transactions for a specific VPA of the authenticated user, newest first")
+    public ResponseEntity<TransactionSlice> getTransactionSliceByVpa(
+            @PathVariable String vpaAddress,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        User currentUser = getCurrentUser();
+        TransactionSlice transactions = transactionService.getTransactionSliceByVpa(currentUser, vpaAddress, cursor, size);
+        return ResponseEntity.ok(transactions);
+    }
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -0,0 +1,22 @@
+package com.upi.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPayoutLegResult {
+
+    private int index; // Position of the leg in the request
+    private String receiverVpa;
+    private BigDecimal amount;
+    private String utrNumber;
+    private String status;
+    private String failureReason;
+}
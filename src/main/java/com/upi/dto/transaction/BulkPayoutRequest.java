@@ -0,0 +1,37 @@
+package com.upi.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPayoutRequest {
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$")
+    private String senderVpa;
+
+    @NotBlank
+    @Pattern(regexp = "^[0-9]{4,6}$")
+    private String upiPin;
+
+    // Checked here because the type is only parsed once the sender's account is locked
+    @NotBlank
+    @Pattern(regexp = "^(P2P|P2M|BILL_PAYMENT|REFUND)$")
+    private String transactionType;
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid BulkPayoutLeg> legs;
+}
@@ -0,0 +1,23 @@
+package com.upi.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPayoutResponse {
+
+    private String senderVpa;
+    private int totalLegs;
+    private int completedLegs;
+    private int failedLegs;
+    private BigDecimal totalDebited;
+    private List<BulkPayoutLegResult> legs;
+}
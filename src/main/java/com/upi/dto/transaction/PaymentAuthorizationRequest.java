@@ -0,0 +1,28 @@
+package com.upi.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentAuthorizationRequest {
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$")
+    private String senderVpa;
+
+    @NotBlank
+    @Pattern(regexp = "^[0-9]{4,6}$")
+    private String upiPin;
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z0-9._-]{1,64}$")
+    private String deviceId;
+}
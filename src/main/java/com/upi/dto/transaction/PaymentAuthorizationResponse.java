@@ -0,0 +1,22 @@
+package com.upi.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentAuthorizationResponse {
+
+    private String authorizationToken;
+    private String senderVpa;
+    private BigDecimal perPaymentLimit;
+    private int maxPayments;
+    private LocalDateTime expiresAt;
+}
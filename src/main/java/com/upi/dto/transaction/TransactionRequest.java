@@ -29,10 +29,15 @@ public class TransactionRequest {
     @DecimalMin(value = "1.0")
     private BigDecimal amount;
 
-    @NotBlank
+    // Either the UPI PIN or a payment authorization token issued to this device
     @Pattern(regexp = "^[0-9]{4,6}$")
     private String upiPin;
 
+    private String authorizationToken;
+
+    @Pattern(regexp = "^[a-zA-Z0-9._-]{1,64}$")
+    private String deviceId;
+
     private String description;
 
     @NotBlank
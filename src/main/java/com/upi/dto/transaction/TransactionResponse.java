@@ -1,5 +1,7 @@
 package com.upi.dto.transaction;
 
+import com.upi.model.Transaction.TransactionStatus;
+import com.upi.model.Transaction.TransactionType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,4 +27,14 @@ public class TransactionResponse {
     private String failureReason;
     private LocalDateTime createdAt;
     private LocalDateTime completedAt;
+
+    /**
+     * Used by the JPQL constructor expressions in TransactionRepository.
+     */
+    public TransactionResponse(Long id, String utrNumber, String senderVpa, String receiverVpa, BigDecimal amount,
+                               String description, TransactionType type, TransactionStatus status,
+                               String failureReason, LocalDateTime createdAt, LocalDateTime completedAt) {
+        this(id, utrNumber, senderVpa, receiverVpa, amount, description, type != null ? type.name() : null,
+                status != null ? status.name() : null, failureReason, createdAt, completedAt);
+    }
 }
\ No newline at end of file
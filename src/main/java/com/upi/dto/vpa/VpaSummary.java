@@ -0,0 +1,19 @@
+package com.upi.dto.vpa;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The identifiers behind a VPA address, enough to route or authorize a payment without loading entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VpaSummary {
+
+    private Long vpaId;
+    private Long userId;
+    private Long bankAccountId;
+    private boolean active;
+}
@@ -47,6 +47,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(HashingCapacityException.class)
+    public ResponseEntity<MessageResponse> handleHashingCapacityException(
+            HashingCapacityException ex, WebRequest request) {
+        MessageResponse message = new MessageResponse(
+                ex.getMessage(),
+                false
+        );
+        return new ResponseEntity<>(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -0,0 +1,13 @@
+package com.upi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class HashingCapacityException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public HashingCapacityException(String pool) {
+        super(String.format("Too many %s requests in progress, please try again shortly", pool));
+    }
+}
@@ -0,0 +1,188 @@
+package com.upi.lock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-JVM locks keyed by bank account id, so payments touching the same account on this node
+ * queue here instead of holding a pooled connection while they wait on a database row lock.
+ *
+ * Account ids are hashed onto a fixed array of stripes. Multi-account acquisition always takes
+ * stripes in ascending index order, which keeps it deadlock-free.
+ */
+@Component
+public class AccountLockManager {
+
+    /**
+     * Wait-time buckets: bucket i counts waits shorter than 2^i microseconds, the last one everything longer.
+     */
+    public static final int HISTOGRAM_BUCKETS = 24;
+
+    private static final int MAX_TRACKED_ACCOUNTS = 10000;
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+    private final AtomicLongArray waitHistogram;
+    private final ConcurrentHashMap<Long, Contention> contention = new ConcurrentHashMap<>();
+
+    public AccountLockManager(@Value("${upi.app.accountLocks.stripes:1024}") int stripeCount,
+                              @Value("${upi.app.accountLocks.timeoutMs:2000}") long timeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+        this.waitHistogram = new AtomicLongArray(size * HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Locks every given account, blocking up to the configured timeout. The returned handle must be
+     * closed by the same thread.
+     */
+    public Handle lock(Long... accountIds) {
+        int[] indexes = Arrays.stream(accountIds)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                acquire(index, accountIds);
+                acquired++;
+            }
+        } catch (RuntimeException e) {
+            release(indexes, acquired);
+            throw e;
+        }
+        return new Handle(indexes);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the wait-time histogram of one stripe, see {@link #HISTOGRAM_BUCKETS}.
+     */
+    public long[] getWaitHistogram(int stripe) {
+        long[] buckets = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            buckets[i] = waitHistogram.get(stripe * HISTOGRAM_BUCKETS + i);
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the accounts that spent the most time waiting for their lock, most contended first.
+     */
+    public List<HotAccount> getHotAccounts(int limit) {
+        return contention.entrySet().stream()
+                .map(e -> new HotAccount(e.getKey(), e.getValue().waits.sum(),
+                        TimeUnit.NANOSECONDS.toMicros(e.getValue().waitNanos.sum())))
+                .sorted(Comparator.comparingLong(HotAccount::getTotalWaitMicros).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private void acquire(int index, Long[] accountIds) {
+        ReentrantLock lock = stripes[index];
+        if (lock.tryLock()) {
+            recordWait(index, 0);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for account lock");
+        }
+        long waited = System.nanoTime() - start;
+        recordWait(index, waited);
+        for (Long accountId : accountIds) {
+            if (stripeOf(accountId) == index) {
+                recordContention(accountId, waited);
+            }
+        }
+        if (!locked) {
+            throw new RuntimeException("Account is busy, please retry");
+        }
+    }
+
+    private void release(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripeOf(Long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes.length - 1);
+    }
+
+    private void recordWait(int stripe, long waitedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(waitedNanos);
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), HISTOGRAM_BUCKETS - 1);
+        waitHistogram.incrementAndGet(stripe * HISTOGRAM_BUCKETS + bucket);
+    }
+
+    private void recordContention(Long accountId, long waitedNanos) {
+        Contention c = contention.get(accountId);
+        if (c == null) {
+            if (contention.size() >= MAX_TRACKED_ACCOUNTS) {
+                return;
+            }
+            c = contention.computeIfAbsent(accountId, id -> new Contention());
+        }
+        c.waits.increment();
+        c.waitNanos.add(waitedNanos);
+    }
+
+    public final class Handle implements AutoCloseable {
+
+        private final int[] indexes;
+        private boolean released;
+
+        private Handle(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(indexes, indexes.length);
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class HotAccount {
+        private Long accountId;
+        private long contendedAcquisitions;
+        private long totalWaitMicros;
+    }
+
+    private static final class Contention {
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,23 @@
+package com.upi.mapper;
+
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.model.BankAccount;
+import com.upi.util.MaskingUtil;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+@Mapper(componentModel = "spring")
+public interface BankAccountMapper {
+
+    /**
+     * Maps a bank account for API responses; the account number is always masked.
+     */
+    @Mapping(target = "accountNumber", source = "accountNumber", qualifiedByName = "maskAccountNumber")
+    BankAccountResponse toResponse(BankAccount bankAccount);
+
+    @Named("maskAccountNumber")
+    default String maskAccountNumber(String accountNumber) {
+        return MaskingUtil.maskAccountNumber(accountNumber);
+    }
+}
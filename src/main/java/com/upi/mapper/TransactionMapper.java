@@ -0,0 +1,17 @@
+package com.upi.mapper;
+
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.model.Transaction;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface TransactionMapper {
+
+    /**
+     * Reads the denormalised address columns, so the lazy VPA associations are never touched.
+     */
+    @Mapping(target = "senderVpa", source = "senderVpaAddress")
+    @Mapping(target = "receiverVpa", source = "receiverVpaAddress")
+    TransactionResponse toResponse(Transaction transaction);
+}
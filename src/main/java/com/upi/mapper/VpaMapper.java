@@ -0,0 +1,11 @@
+package com.upi.mapper;
+
+import com.upi.dto.vpa.VpaResponse;
+import com.upi.model.VirtualPaymentAddress;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = BankAccountMapper.class)
+public interface VpaMapper {
+
+    VpaResponse toResponse(VirtualPaymentAddress vpa);
+}
@@ -0,0 +1,53 @@
+package com.upi.metrics;
+
+import com.upi.lock.AccountLockManager;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+/**
+ * Account lock contention at /actuator/accountlocks: the wait-time histogram of every stripe that
+ * ever made a payment wait, and the accounts that waited longest. Too many series for Prometheus,
+ * so it is read on demand instead.
+ */
+@Component
+@Endpoint(id = "accountlocks")
+public class AccountLockEndpoint {
+
+    private static final int DEFAULT_HOT_ACCOUNTS = 20;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @ReadOperation
+    public AccountLockReport report(@Nullable Integer limit) {
+        Map<Integer, long[]> contendedStripes = new TreeMap<>();
+        for (int stripe = 0; stripe < accountLockManager.getStripeCount(); stripe++) {
+            long[] histogram = accountLockManager.getWaitHistogram(stripe);
+            // Bucket 0 holds the acquisitions that did not wait
+            if (LongStream.of(histogram).skip(1).anyMatch(count -> count > 0)) {
+                contendedStripes.put(stripe, histogram);
+            }
+        }
+        return new AccountLockReport(accountLockManager.getStripeCount(), AccountLockManager.HISTOGRAM_BUCKETS,
+                contendedStripes, accountLockManager.getHotAccounts(limit != null ? limit : DEFAULT_HOT_ACCOUNTS));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class AccountLockReport {
+        private int stripes;
+        private int histogramBuckets; // Bucket i counts waits shorter than 2^i microseconds, the last one the rest
+        private Map<Integer, long[]> contendedStripes;
+        private List<AccountLockManager.HotAccount> hotAccounts;
+    }
+}
@@ -0,0 +1,88 @@
+package com.upi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stage timers and outcome counters for the payment path.
+ */
+@Component
+public class PaymentMetrics {
+
+    public enum Stage {
+        VPA_RESOLVE, PIN_VERIFY, ACCOUNT_LOCK, DEBIT, CREDIT, PERSIST, MAP, TOTAL
+    }
+
+    // Failure reasons come from exception messages; cap them so a stray message cannot blow up the series count
+    private static final int MAX_FAILURE_REASONS = 100;
+
+    private static final String OTHER_REASON = "other";
+
+    private final MeterRegistry registry;
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+
+    private final ConcurrentHashMap<String, Counter> outcomes = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Counter> failureReasons = new ConcurrentHashMap<>();
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("upi.payment.stage")
+                    .description("Latency of each stage of the payment path")
+                    .tag("stage", stage.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    // Most stages finish well under the 1ms default lower bound
+                    .minimumExpectedValue(Duration.ofNanos(50_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stages.get(stage).record(work);
+    }
+
+    public void time(Stage stage, Runnable work) {
+        stages.get(stage).record(work);
+    }
+
+    public void recordStage(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(String type, String status) {
+        outcomes.computeIfAbsent(type + "|" + status, k -> Counter.builder("upi.payments")
+                .description("Payments by transaction type and final status")
+                .tag("type", type)
+                .tag("status", status)
+                .register(registry)).increment();
+    }
+
+    public void recordFailure(String type, String reason) {
+        recordOutcome(type, "FAILED");
+
+        String key = reason == null ? OTHER_REASON : reason;
+        Counter counter = failureReasons.get(key);
+        if (counter == null) {
+            if (failureReasons.size() >= MAX_FAILURE_REASONS) {
+                key = OTHER_REASON;
+            }
+            counter = failureReasons.computeIfAbsent(key, k -> Counter.builder("upi.payment.failures")
+                    .description("Failed payments by failure reason")
+                    .tag("reason", k)
+                    .register(registry));
+        }
+        counter.increment();
+    }
+}
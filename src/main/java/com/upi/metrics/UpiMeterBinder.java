@@ -0,0 +1,151 @@
+package com.upi.metrics;
+
+import com.upi.cache.IdempotencyCache;
+import com.upi.cache.RecentTransactionCache;
+import com.upi.cache.VpaBloomFilter;
+import com.upi.cache.VpaCache;
+import com.upi.security.hashing.BoundedPasswordEncoder;
+import com.upi.security.jwt.VerifiedTokenCache;
+import com.upi.security.payment.PaymentTokenManager;
+import com.upi.security.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the application's own caches, hashing pools, payment grants and admission counters. Connection pool,
+ * Hibernate, executor, JVM and HTTP server metrics come from Spring Boot's binders.
+ */
+@Component
+public class UpiMeterBinder implements MeterBinder {
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private VpaCache vpaCache;
+
+    @Autowired
+    private VpaBloomFilter vpaBloomFilter;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private List<BoundedPasswordEncoder> hashingPools;
+
+    @Autowired
+    private PaymentTokenManager paymentTokenManager;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "recent_transactions", recentTransactionCache, RecentTransactionCache::getHits,
+                RecentTransactionCache::getMisses, RecentTransactionCache::getEvictions, RecentTransactionCache::size);
+        bindCache(registry, "idempotency", idempotencyCache, IdempotencyCache::getHits,
+                IdempotencyCache::getMisses, IdempotencyCache::getEvictions, IdempotencyCache::size);
+        bindCache(registry, "vpa", vpaCache, VpaCache::getHits, VpaCache::getMisses, VpaCache::getEvictions,
+                VpaCache::size);
+        bindCache(registry, "verified_tokens", verifiedTokenCache, VerifiedTokenCache::getHits,
+                VerifiedTokenCache::getMisses, VerifiedTokenCache::getEvictions, VerifiedTokenCache::size);
+
+        FunctionCounter.builder("upi.vpa.bloom.rejections", vpaBloomFilter, VpaBloomFilter::getRejections)
+                .description("Unknown VPAs rejected by the Bloom filter")
+                .register(registry);
+        Gauge.builder("upi.vpa.bloom.size", vpaBloomFilter, VpaBloomFilter::getSizeInBytes)
+                .description("Memory held by the Bloom filter's bit array")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("upi.vpa.bloom.false.positive.rate", vpaBloomFilter,
+                        VpaBloomFilter::getExpectedFalsePositiveRate)
+                .description("False-positive rate expected for the addresses inserted so far")
+                .tag("kind", "expected")
+                .register(registry);
+        Gauge.builder("upi.vpa.bloom.false.positive.rate", vpaBloomFilter,
+                        VpaBloomFilter::getConfiguredFalsePositiveRate)
+                .description("False-positive rate the filter was sized for")
+                .tag("kind", "configured")
+                .register(registry);
+
+        for (BoundedPasswordEncoder pool : hashingPools) {
+            bindHashingPool(registry, pool);
+        }
+
+        Gauge.builder("upi.payment.grants", paymentTokenManager, PaymentTokenManager::getOutstandingGrants)
+                .description("Payment authorization grants held in memory, expired ones until the next purge")
+                .register(registry);
+
+        FunctionCounter.builder("upi.rate.limit.rejections", rateLimitFilter, RateLimitFilter::getRejections)
+                .description("Requests rejected with 429")
+                .register(registry);
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache, ToDoubleFunction<T> hits,
+                                      ToDoubleFunction<T> misses, ToDoubleFunction<T> evictions,
+                                      ToDoubleFunction<T> size) {
+        FunctionCounter.builder("upi.cache.hits", cache, hits)
+                .description("Cache hits")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("upi.cache.misses", cache, misses)
+                .description("Cache misses")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("upi.cache.evictions", cache, evictions)
+                .description("Entries dropped for capacity, idleness or age")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("upi.cache.size", cache, size)
+                .description("Cache entries")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static void bindHashingPool(MeterRegistry registry, BoundedPasswordEncoder pool) {
+        String name = pool.getName();
+        Gauge.builder("upi.hashing.queue.depth", pool, BoundedPasswordEncoder::getQueueDepth)
+                .description("Hash requests waiting for a thread")
+                .tag("pool", name)
+                .register(registry);
+        Gauge.builder("upi.hashing.active", pool, BoundedPasswordEncoder::getActiveCount)
+                .description("Hashing threads busy")
+                .tag("pool", name)
+                .register(registry);
+        FunctionTimer.builder("upi.hashing.duration", pool, BoundedPasswordEncoder::getHashCount,
+                        BoundedPasswordEncoder::getHashNanos, TimeUnit.NANOSECONDS)
+                .description("Time to compute one hash")
+                .tag("pool", name)
+                .register(registry);
+        Gauge.builder("upi.hashing.duration.max", pool, p -> p.getMaxHashNanos() / 1e9)
+                .description("Slowest hash since startup")
+                .baseUnit("seconds")
+                .tag("pool", name)
+                .register(registry);
+        FunctionTimer.builder("upi.hashing.queue.wait", pool, BoundedPasswordEncoder::getHashCount,
+                        BoundedPasswordEncoder::getQueueWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time a hash request waited for a thread")
+                .tag("pool", name)
+                .register(registry);
+        FunctionCounter.builder("upi.hashing.rejected", pool, BoundedPasswordEncoder::getRejectedCount)
+                .description("Hash requests rejected because the pool was full")
+                .tag("pool", name)
+                .register(registry);
+        FunctionCounter.builder("upi.hashing.timeouts", pool, BoundedPasswordEncoder::getTimeoutCount)
+                .description("Hash requests that waited past the timeout")
+                .tag("pool", name)
+                .register(registry);
+    }
+}
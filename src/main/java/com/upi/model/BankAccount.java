@@ -27,7 +27,8 @@ import java.util.Set;
 public class BankAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_accounts_seq")
+    @SequenceGenerator(name = "bank_accounts_seq", sequenceName = "bank_accounts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -57,9 +58,11 @@ public class BankAccount {
 
     private BigDecimal balance;
 
-    @Size(min = 4, max = 6)
-    private String upiPin; // Encrypted UPI PIN
+    @Size(max = 120)
+    private String upiPin; // BCrypt hash of the UPI PIN
 
+    // PRIMARY is a reserved word in both H2 and PostgreSQL
+    @Column(name = "is_primary")
     private boolean primary = false;
 
     private boolean verified = false;
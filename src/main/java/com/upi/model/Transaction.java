@@ -12,7 +12,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_sender_created", columnList = "sender_vpa_address, created_at, id"),
+        @Index(name = "idx_transactions_receiver_created", columnList = "receiver_vpa_address, created_at, id"),
+        @Index(name = "idx_transactions_status_created", columnList = "status, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,7 +25,9 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids are handed out in blocks; bulk payouts take a whole JDBC batch worth at a time
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 500)
     private Long id;
 
     @Column(unique = true, nullable = false)
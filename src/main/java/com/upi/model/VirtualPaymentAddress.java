@@ -26,7 +26,8 @@ import java.time.LocalDateTime;
 public class VirtualPaymentAddress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "virtual_payment_addresses_seq")
+    @SequenceGenerator(name = "virtual_payment_addresses_seq", sequenceName = "virtual_payment_addresses_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +43,8 @@ public class VirtualPaymentAddress {
     @Pattern(regexp = "^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$")
     private String address; // e.g., username@bankhandle
 
+    // PRIMARY is a reserved word in both H2 and PostgreSQL
+    @Column(name = "is_primary")
     private boolean primary = false;
 
     private boolean active = true;
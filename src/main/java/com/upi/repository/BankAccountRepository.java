@@ -3,8 +3,13 @@ package com.upi.repository;
 import com.upi.model.BankAccount;
 import com.upi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +20,26 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
 
     Optional<BankAccount> findByUserAndId(User user, Long id);
 
+    boolean existsByUser(User user);
+
     Optional<BankAccount> findByUserAndPrimaryIsTrue(User user);
 
     Optional<BankAccount> findByAccountNumberAndIfscCode(String accountNumber, String ifscCode);
 
     boolean existsByAccountNumberAndIfscCode(String accountNumber, String ifscCode);
+
+    @Query("SELECT b.balance FROM BankAccount b WHERE b.id = :id")
+    BigDecimal findBalanceById(@Param("id") Long id);
+
+    /**
+     * Debits the account only if it holds at least the amount. Returns 0 when the balance is insufficient.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BankAccount b SET b.balance = b.balance - :amount, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.balance >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BankAccount b SET b.balance = b.balance + :amount, b.updatedAt = :now WHERE b.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.upi.repository;
 
+import com.upi.dto.transaction.TransactionResponse;
 import com.upi.model.Transaction;
+import com.upi.model.Transaction.TransactionStatus;
 import com.upi.model.VirtualPaymentAddress;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +23,106 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     Optional<Transaction> findByUtrNumber(String utrNumber);
 
-    Page<Transaction> findBySenderVpaAddressOrReceiverVpaAddress(String senderVpaAddress, String receiverVpaAddress, Pageable pageable);
+    // Submitted payments change state only through these conditional updates, so the payment workers and the
+    // stale payment sweep can never overwrite each other's outcome
 
-    List<Transaction> findBySenderVpaAddressInOrReceiverVpaAddressInOrderByCreatedAtDesc(List<String> senderVpaAddresses, List<String> receiverVpaAddresses);
+    List<TransactionStatus> PENDING_STATUSES = List.of(TransactionStatus.INITIATED, TransactionStatus.PROCESSING);
 
-    Page<Transaction> findBySenderVpaAddress(String senderVpaAddress, Pageable pageable);
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :to WHERE t.id = :id AND t.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") TransactionStatus from, @Param("to") TransactionStatus to);
 
-    Page<Transaction> findByReceiverVpaAddress(String receiverVpaAddress, Pageable pageable);
-}
\ No newline at end of file
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = com.upi.model.Transaction$TransactionStatus.COMPLETED, " +
+            "t.receiverVpa = :receiverVpa, t.completedAt = :completedAt " +
+            "WHERE t.id = :id AND t.status = com.upi.model.Transaction$TransactionStatus.PROCESSING")
+    int completeProcessing(@Param("id") Long id, @Param("receiverVpa") VirtualPaymentAddress receiverVpa,
+                           @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = com.upi.model.Transaction$TransactionStatus.FAILED, " +
+            "t.failureReason = :reason WHERE t.id = :id AND t.status IN :pending")
+    int failPending(@Param("id") Long id, @Param("pending") Collection<TransactionStatus> pending,
+                    @Param("reason") String reason);
+
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = com.upi.model.Transaction$TransactionStatus.FAILED, " +
+            "t.failureReason = :reason WHERE t.status IN :pending AND t.createdAt < :cutoff")
+    int failPendingCreatedBefore(@Param("pending") Collection<TransactionStatus> pending,
+                                 @Param("cutoff") LocalDateTime cutoff, @Param("reason") String reason);
+
+    // Owners of the sender and receiver VPAs, whose recent-activity buffers a status change makes stale
+
+    @Query("SELECT DISTINCT v.user.id FROM Transaction t, VirtualPaymentAddress v WHERE t.id = :id " +
+            "AND (v.address = t.senderVpaAddress OR v.address = t.receiverVpaAddress)")
+    List<Long> findPartyUserIds(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT v.user.id FROM Transaction t, VirtualPaymentAddress v " +
+            "WHERE t.status IN :pending AND t.createdAt < :cutoff " +
+            "AND (v.address = t.senderVpaAddress OR v.address = t.receiverVpaAddress)")
+    List<Long> findPartyUserIdsOfPendingCreatedBefore(@Param("pending") Collection<TransactionStatus> pending,
+                                                      @Param("cutoff") LocalDateTime cutoff);
+
+    // History reads select straight into the response DTO, so no entity enters the persistence context
+    String RESPONSE = "SELECT new com.upi.dto.transaction.TransactionResponse(t.id, t.utrNumber, " +
+            "t.senderVpaAddress, t.receiverVpaAddress, t.amount, t.description, t.type, t.status, " +
+            "t.failureReason, t.createdAt, t.completedAt) FROM Transaction t ";
+
+    @Query(RESPONSE + "WHERE t.utrNumber = :utrNumber")
+    Optional<TransactionResponse> findResponseByUtrNumber(@Param("utrNumber") String utrNumber);
+
+    @Query(RESPONSE + "WHERE (t.senderVpaAddress IN :addresses OR t.receiverVpaAddress IN :addresses) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findRecentByVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(value = RESPONSE + "WHERE t.senderVpaAddress IN :addresses OR t.receiverVpaAddress IN :addresses",
+            countQuery = "SELECT COUNT(t) FROM Transaction t " +
+                    "WHERE t.senderVpaAddress IN :addresses OR t.receiverVpaAddress IN :addresses")
+    Page<TransactionResponse> findPageByVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(value = RESPONSE + "WHERE t.senderVpaAddress IN :addresses",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.senderVpaAddress IN :addresses")
+    Page<TransactionResponse> findPageBySenderVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(value = RESPONSE + "WHERE t.receiverVpaAddress IN :addresses",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.receiverVpaAddress IN :addresses")
+    Page<TransactionResponse> findPageByReceiverVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    // Keyset pagination: ordered by (createdAt, id) so a slice boundary stays stable while new rows are inserted
+
+    @Query(RESPONSE + "WHERE (t.senderVpaAddress IN :addresses OR t.receiverVpaAddress IN :addresses) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findFirstSliceByVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(RESPONSE + "WHERE (t.senderVpaAddress IN :addresses OR t.receiverVpaAddress IN :addresses) " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findSliceByVpaAddressesAfter(@Param("addresses") Collection<String> addresses,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    @Query(RESPONSE + "WHERE t.senderVpaAddress IN :addresses " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findFirstSliceBySenderVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(RESPONSE + "WHERE t.senderVpaAddress IN :addresses " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findSliceBySenderVpaAddressesAfter(@Param("addresses") Collection<String> addresses,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") Long id,
+                                                                  Pageable pageable);
+
+    @Query(RESPONSE + "WHERE t.receiverVpaAddress IN :addresses " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findFirstSliceByReceiverVpaAddresses(@Param("addresses") Collection<String> addresses, Pageable pageable);
+
+    @Query(RESPONSE + "WHERE t.receiverVpaAddress IN :addresses " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TransactionResponse> findSliceByReceiverVpaAddressesAfter(@Param("addresses") Collection<String> addresses,
+                                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                                    @Param("id") Long id,
+                                                                    Pageable pageable);
+}
@@ -2,8 +2,12 @@ package com.upi.repository;
 
 import com.upi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +24,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
 
     Boolean existsByPhone(String phone);
+
+    @Query("SELECT u.id FROM User u WHERE u.enabled = false")
+    List<Long> findDisabledUserIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.enabled = true")
+    List<Long> findEnabledUserIdsIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,23 +1,53 @@
 package com.upi.repository;
 
+import com.upi.dto.vpa.VpaSummary;
 import com.upi.model.BankAccount;
 import com.upi.model.User;
 import com.upi.model.VirtualPaymentAddress;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface VirtualPaymentAddressRepository extends JpaRepository<VirtualPaymentAddress, Long> {
 
-    List<VirtualPaymentAddress> findByUser(User user);
+    // Listing maps each VPA's bank account, so fetch them in the same query
+    @EntityGraph(attributePaths = "bankAccount")
+    List<VirtualPaymentAddress> findWithBankAccountByUser(User user);
+
+    boolean existsByUser(User user);
+
+    long countByUser(User user);
+
+    @Query("SELECT v.address FROM VirtualPaymentAddress v WHERE v.user = :user")
+    List<String> findAddressesByUser(@Param("user") User user);
 
     List<VirtualPaymentAddress> findByBankAccount(BankAccount bankAccount);
 
     Optional<VirtualPaymentAddress> findByAddress(String address);
 
+    @Query("SELECT new com.upi.dto.vpa.VpaSummary(v.id, v.user.id, v.bankAccount.id, v.active) " +
+            "FROM VirtualPaymentAddress v WHERE v.address = :address")
+    Optional<VpaSummary> findSummaryByAddress(@Param("address") String address);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.address FROM VirtualPaymentAddress v")
+    Stream<String> streamAllAddresses();
+
+    @Query("SELECT v FROM VirtualPaymentAddress v JOIN FETCH v.bankAccount WHERE v.address IN :addresses")
+    List<VirtualPaymentAddress> findWithBankAccountByAddressIn(@Param("addresses") Collection<String> addresses);
+
     Optional<VirtualPaymentAddress> findByUserAndId(User user, Long id);
 
     Optional<VirtualPaymentAddress> findByUserAndPrimaryIsTrue(User user);
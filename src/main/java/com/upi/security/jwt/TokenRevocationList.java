@@ -0,0 +1,83 @@
+package com.upi.security.jwt;
+
+import com.upi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory record of users whose tokens must no longer be accepted. Lets the JWT filter trust
+ * signed claims without loading the user on every request.
+ *
+ * Refreshed from the database on a schedule: disabled users are revoked, and every user who
+ * presented a token since the last refresh is checked to still exist and be enabled. A user
+ * disabled or deleted at runtime is therefore locked out within one refresh interval.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private volatile Set<Long> revoked = Set.of();
+
+    // Users with an accepted token since the last refresh
+    private volatile Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${upi.app.tokenRevocation.refreshIntervalMs:30000}",
+            initialDelayString = "${upi.app.tokenRevocation.refreshIntervalMs:30000}")
+    public synchronized void refresh() {
+        Set<Long> checked = seen;
+        seen = ConcurrentHashMap.newKeySet();
+
+        Set<Long> disabled = new HashSet<>(userRepository.findDisabledUserIds());
+
+        // Recently active users, plus users revoked earlier for being deleted or to see if they came back
+        Set<Long> candidates = new HashSet<>(checked);
+        candidates.addAll(revoked);
+        candidates.removeAll(disabled);
+
+        Set<Long> next = new HashSet<>(disabled);
+        List<Long> ids = new ArrayList<>(candidates);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+            Set<Long> enabled = new HashSet<>(userRepository.findEnabledUserIdsIn(chunk));
+            chunk.stream().filter(id -> !enabled.contains(id)).forEach(next::add);
+        }
+
+        if (!next.equals(revoked)) {
+            logger.info("Token revocation list refreshed: {} users revoked", next.size());
+        }
+        revoked = Set.copyOf(next);
+    }
+
+    /**
+     * Whether the user's tokens are rejected. Users that pass are checked at the next refresh.
+     */
+    public boolean isRevoked(Long userId) {
+        if (revoked.contains(userId)) {
+            return true;
+        }
+        seen.add(userId);
+        return false;
+    }
+}
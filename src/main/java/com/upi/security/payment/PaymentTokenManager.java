@@ -0,0 +1,220 @@
+package com.upi.security.payment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues and checks short-lived payment authorization tokens. After one successful PIN check a
+ * device gets a token for a few small payments from one bank account, verified with an HMAC
+ * instead of BCrypt. The remaining payment count lives on this node, so a token is only honoured
+ * by the instance that issued it and dies with it on restart.
+ */
+@Component
+public class PaymentTokenManager {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ConcurrentHashMap<String, Grant> grants = new ConcurrentHashMap<>();
+
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    @Value("${upi.app.paymentToken.ttlMs:300000}")
+    private long ttlMs;
+
+    @Value("${upi.app.paymentToken.maxPayments:5}")
+    private int maxPayments;
+
+    @Value("${upi.app.paymentToken.perPaymentLimit:2000}")
+    private BigDecimal perPaymentLimit;
+
+    private SecretKeySpec key;
+
+    private ThreadLocal<Mac> mac;
+
+    @PostConstruct
+    public void init() {
+        // Tokens never outlive the in-memory grants, so a per-process key is enough
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Issues a token for the given account and device. The caller must already have checked the PIN.
+     */
+    public Grant issue(Long userId, Long bankAccountId, String deviceId) {
+        String grantId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        String payload = String.join("|", grantId, userId.toString(), bankAccountId.toString(), deviceId,
+                perPaymentLimit.toPlainString(), Long.toString(expiresAt));
+        String token = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + sign(payload);
+
+        Grant grant = new Grant(grantId, token, bankAccountId, perPaymentLimit, maxPayments, expiresAt);
+        grants.put(grantId, grant);
+        return grant;
+    }
+
+    /**
+     * Checks the token against the payment and takes one use from it. Returns the grant id, which
+     * must be passed to {@link #release} if the payment does not go through.
+     */
+    public String consume(String token, Long userId, Long bankAccountId, String deviceId, BigDecimal amount) {
+        String[] claims = verify(token);
+        if (!claims[1].equals(userId.toString()) || !claims[2].equals(bankAccountId.toString())
+                || !claims[3].equals(deviceId)) {
+            throw new RuntimeException("Payment authorization is not valid for this account or device");
+        }
+
+        if (amount.compareTo(new BigDecimal(claims[4])) > 0) {
+            throw new RuntimeException("Amount exceeds the authorized limit, please pay with your UPI PIN");
+        }
+
+        Grant grant = grants.get(claims[0]);
+        if (grant == null || grant.isExpired(System.currentTimeMillis())) {
+            throw new RuntimeException("Payment authorization has expired, please pay with your UPI PIN");
+        }
+
+        if (!grant.tryTake()) {
+            throw new RuntimeException("Payment authorization is used up, please pay with your UPI PIN");
+        }
+        return grant.getGrantId();
+    }
+
+    public void release(String grantId) {
+        Grant grant = grants.get(grantId);
+        if (grant != null) {
+            grant.remaining.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every outstanding token of the account, e.g. after its PIN changes.
+     */
+    public void revokeForAccount(Long bankAccountId) {
+        grants.values().removeIf(grant -> grant.getBankAccountId().equals(bankAccountId));
+    }
+
+    @Scheduled(fixedDelayString = "${upi.app.paymentToken.ttlMs:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        grants.values().removeIf(grant -> grant.isExpired(now));
+    }
+
+    public int getOutstandingGrants() {
+        return grants.size();
+    }
+
+    private String[] verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            throw new RuntimeException("Invalid payment authorization");
+        }
+
+        String payload;
+        try {
+            payload = new String(decoder.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid payment authorization");
+        }
+
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new RuntimeException("Invalid payment authorization");
+        }
+
+        String[] claims = payload.split("\\|");
+        if (Long.parseLong(claims[5]) <= System.currentTimeMillis()) {
+            throw new RuntimeException("Payment authorization has expired, please pay with your UPI PIN");
+        }
+        return claims;
+    }
+
+    private String sign(String payload) {
+        return encoder.encodeToString(mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static final class Grant {
+        private final String grantId;
+        private final String token;
+        private final Long bankAccountId;
+        private final BigDecimal perPaymentLimit;
+        private final int maxPayments;
+        private final long expiresAt;
+        private final AtomicInteger remaining;
+
+        private Grant(String grantId, String token, Long bankAccountId, BigDecimal perPaymentLimit,
+                      int maxPayments, long expiresAt) {
+            this.grantId = grantId;
+            this.token = token;
+            this.bankAccountId = bankAccountId;
+            this.perPaymentLimit = perPaymentLimit;
+            this.maxPayments = maxPayments;
+            this.expiresAt = expiresAt;
+            this.remaining = new AtomicInteger(maxPayments);
+        }
+
+        private boolean tryTake() {
+            int current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        public String getGrantId() {
+            return grantId;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public Long getBankAccountId() {
+            return bankAccountId;
+        }
+
+        public BigDecimal getPerPaymentLimit() {
+            return perPaymentLimit;
+        }
+
+        public int getMaxPayments() {
+            return maxPayments;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.upi.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upi.dto.MessageResponse;
+import com.upi.security.services.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the API. Every request in a limited endpoint class takes a
+ * token from its client IP's bucket and, once the JWT filter has authenticated it, from its
+ * user's bucket. Requests over budget get 429 with Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    enum EndpointClass { AUTH, PAYMENT, HISTORY }
+
+    private final Map<EndpointClass, TokenBucketLimiter<Long>> userLimiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, TokenBucketLimiter<String>> ipLimiters = new EnumMap<>(EndpointClass.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final LongAdder rejections = new LongAdder();
+
+    @Value("${upi.app.rateLimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${upi.app.rateLimit.maxKeys:100000}")
+    private int maxKeys;
+
+    @Value("${upi.app.rateLimit.auth.ipRatePerSecond:5}")
+    private double authIpRate;
+
+    @Value("${upi.app.rateLimit.auth.ipBurst:20}")
+    private int authIpBurst;
+
+    @Value("${upi.app.rateLimit.payment.userRatePerSecond:2}")
+    private double paymentUserRate;
+
+    @Value("${upi.app.rateLimit.payment.userBurst:10}")
+    private int paymentUserBurst;
+
+    @Value("${upi.app.rateLimit.payment.ipRatePerSecond:20}")
+    private double paymentIpRate;
+
+    @Value("${upi.app.rateLimit.payment.ipBurst:50}")
+    private int paymentIpBurst;
+
+    @Value("${upi.app.rateLimit.history.userRatePerSecond:10}")
+    private double historyUserRate;
+
+    @Value("${upi.app.rateLimit.history.userBurst:30}")
+    private int historyUserBurst;
+
+    @Value("${upi.app.rateLimit.history.ipRatePerSecond:50}")
+    private double historyIpRate;
+
+    @Value("${upi.app.rateLimit.history.ipBurst:100}")
+    private int historyIpBurst;
+
+    @PostConstruct
+    public void init() {
+        // Sign-in and sign-up have no user yet, so only the IP is limited
+        ipLimiters.put(EndpointClass.AUTH, new TokenBucketLimiter<>(authIpRate, authIpBurst, maxKeys));
+        userLimiters.put(EndpointClass.PAYMENT, new TokenBucketLimiter<>(paymentUserRate, paymentUserBurst, maxKeys));
+        ipLimiters.put(EndpointClass.PAYMENT, new TokenBucketLimiter<>(paymentIpRate, paymentIpBurst, maxKeys));
+        userLimiters.put(EndpointClass.HISTORY, new TokenBucketLimiter<>(historyUserRate, historyUserBurst, maxKeys));
+        ipLimiters.put(EndpointClass.HISTORY, new TokenBucketLimiter<>(historyIpRate, historyIpBurst, maxKeys));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = enabled ? classify(request) : null;
+        if (endpointClass != null) {
+            long waitNanos = acquire(endpointClass, request);
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${upi.app.rateLimit.evictionIntervalMs:60000}")
+    public void evictIdleBuckets() {
+        userLimiters.values().forEach(TokenBucketLimiter::evictIdle);
+        ipLimiters.values().forEach(TokenBucketLimiter::evictIdle);
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    private long acquire(EndpointClass endpointClass, HttpServletRequest request) {
+        TokenBucketLimiter<String> ipLimiter = ipLimiters.get(endpointClass);
+        long waitNanos = ipLimiter == null ? 0 : ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            return waitNanos;
+        }
+
+        TokenBucketLimiter<Long> userLimiter = userLimiters.get(endpointClass);
+        Long userId = currentUserId();
+        return userLimiter == null || userId == null ? 0 : userLimiter.tryAcquire(userId);
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        // Match on the path inside the application, whatever context path it is deployed under
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return EndpointClass.AUTH;
+        }
+        if (path.startsWith("/api/transactions")) {
+            return HttpMethod.GET.matches(request.getMethod()) ? EndpointClass.HISTORY : EndpointClass.PAYMENT;
+        }
+        return null;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        rejections.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        logger.debug("Rate limit exceeded, retry after {} s", retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(), new MessageResponse(
+                "Too many requests, please retry after " + retryAfterSeconds + " seconds", false));
+    }
+}
@@ -0,0 +1,69 @@
+package com.upi.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key. Each bucket is a single "theoretical arrival time"
+ * updated with CAS (the GCRA form of a token bucket), so an allowed request costs one map
+ * lookup and one compare-and-set. Buckets that have refilled completely carry no state and are
+ * dropped by {@link #evictIdle()}, which only the scheduled sweep calls.
+ *
+ * Once maxKeys buckets exist, new keys share a single overflow bucket until the sweep frees room,
+ * so rotating keys can neither grow the table nor escape the limit.
+ */
+public class TokenBucketLimiter<K> {
+
+    private final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, int maxKeys) {
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 if the request is allowed, otherwise the nanoseconds
+     * until a token becomes available.
+     */
+    public long tryAcquire(K key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.size() >= maxKeys ? overflow : buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        return take(bucket, now);
+    }
+
+    private long take(AtomicLong bucket, long now) {
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that are full again; a missing bucket behaves exactly like a full one.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
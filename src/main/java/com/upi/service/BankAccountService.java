@@ -3,6 +3,7 @@ package com.upi.service;
 import com.upi.dto.MessageResponse;
 import com.upi.dto.bank.BankAccountRequest;
 import com.upi.dto.bank.BankAccountResponse;
+import com.upi.model.BankAccount;
 import com.upi.model.User;
 
 import java.math.BigDecimal;
@@ -27,4 +28,6 @@ public interface BankAccountService {
     BigDecimal getBankBalance(User user, Long id);
 
     MessageResponse validateUpiPin(User user, Long bankAccountId, String upiPin);
+
+    boolean matchesUpiPin(BankAccount bankAccount, String upiPin);
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.upi.service;
 
+import com.upi.dto.transaction.BulkPayoutRequest;
+import com.upi.dto.transaction.BulkPayoutResponse;
+import com.upi.dto.transaction.PaymentAuthorizationRequest;
+import com.upi.dto.transaction.PaymentAuthorizationResponse;
 import com.upi.dto.transaction.TransactionRequest;
 import com.upi.dto.transaction.TransactionResponse;
+import com.upi.dto.transaction.TransactionSlice;
 import com.upi.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface TransactionService {
@@ -15,6 +22,26 @@ public interface TransactionService {
      */
     TransactionResponse initiateTransaction(User user, TransactionRequest transactionRequest);
 
+    /**
+     * Initiates a new transaction at most once per idempotency key; retries get the original result
+     */
+    TransactionResponse initiateTransaction(User user, TransactionRequest transactionRequest, String idempotencyKey);
+
+    /**
+     * Pays many receivers from one VPA with a single PIN check and debit; legs can fail individually
+     */
+    BulkPayoutResponse initiateBulkPayout(User user, BulkPayoutRequest bulkPayoutRequest);
+
+    /**
+     * Checks the UPI PIN once and issues a short-lived token for a few small payments from one device
+     */
+    PaymentAuthorizationResponse authorizePayments(User user, PaymentAuthorizationRequest authorizationRequest);
+
+    /**
+     * Accepts a transaction for asynchronous processing and returns it in INITIATED state
+     */
+    TransactionResponse submitTransaction(User user, TransactionRequest transactionRequest);
+
     /**
      * Gets a transaction by UTR number
      */
@@ -40,8 +67,33 @@ public interface TransactionService {
      */
     List<TransactionResponse> getRecentTransactions(User user, int limit);
 
+    /**
+     * Writes all of a user's transactions (sent or received) as newline-delimited JSON, newest first
+     */
+    void exportUserTransactions(User user, OutputStream out) throws IOException;
+
     /**
      * Gets transactions for a specific VPA (sent or received)
      */
     Page<TransactionResponse> getTransactionsByVpa(User user, String vpaAddress, Pageable pageable);
+
+    /**
+     * Gets a slice of a user's transactions (sent or received) older than the cursor, newest first
+     */
+    TransactionSlice getUserTransactionSlice(User user, String cursor, int size);
+
+    /**
+     * Gets a slice of transactions sent from a user's VPAs older than the cursor, newest first
+     */
+    TransactionSlice getSentTransactionSlice(User user, String cursor, int size);
+
+    /**
+     * Gets a slice of transactions received by a user's VPAs older than the cursor, newest first
+     */
+    TransactionSlice getReceivedTransactionSlice(User user, String cursor, int size);
+
+    /**
+     * Gets a slice of transactions for a specific VPA older than the cursor, newest first
+     */
+    TransactionSlice getTransactionSliceByVpa(User user, String vpaAddress, String cursor, int size);
 }
\ No newline at end of file
@@ -3,13 +3,14 @@ package com.upi.service.impl;
 import com.upi.dto.MessageResponse;
 import com.upi.dto.bank.BankAccountRequest;
 import com.upi.dto.bank.BankAccountResponse;
+import com.upi.mapper.BankAccountMapper;
 import com.upi.model.BankAccount;
 import com.upi.model.User;
 import com.upi.repository.BankAccountRepository;
+import com.upi.security.payment.PaymentTokenManager;
 import com.upi.service.BankAccountService;
-import com.upi.util.MaskingUtil;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,12 +26,17 @@ public class BankAccountServiceImpl implements BankAccountService {
     private BankAccountRepository bankAccountRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private BankAccountMapper bankAccountMapper;
 
     @Autowired
+    @Qualifier("upiPinEncoder")
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PaymentTokenManager paymentTokenManager;
+
     @Override
+    @Transactional(readOnly = true)
     public List<BankAccountResponse> getAllBankAccounts(User user) {
         List<BankAccount> bankAccounts = bankAccountRepository.findByUser(user);
         return bankAccounts.stream()
@@ -39,6 +45,7 @@ public class BankAccountServiceImpl implements BankAccountService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BankAccountResponse getBankAccountById(User user, Long id) {
         BankAccount bankAccount = bankAccountRepository.findByUserAndId(user, id)
                 .orElseThrow(() -> new RuntimeException("Bank account not found"));
@@ -68,7 +75,7 @@ public class BankAccountServiceImpl implements BankAccountService {
                 .build();
 
         // If this is the first account or marked as primary, ensure it's set as primary
-        if (bankAccountRequest.isPrimary() || bankAccountRepository.findByUser(user).isEmpty()) {
+        if (bankAccountRequest.isPrimary() || !bankAccountRepository.existsByUser(user)) {
             // Reset primary flag on all other accounts
             bankAccountRepository.findByUserAndPrimaryIsTrue(user)
                     .ifPresent(existingPrimary -> {
@@ -96,6 +103,8 @@ public class BankAccountServiceImpl implements BankAccountService {
         // Update UPI PIN if provided
         if (bankAccountRequest.getUpiPin() != null && !bankAccountRequest.getUpiPin().isEmpty()) {
             bankAccount.setUpiPin(passwordEncoder.encode(bankAccountRequest.getUpiPin()));
+            // Tokens issued against the old PIN must not keep paying
+            paymentTokenManager.revokeForAccount(bankAccount.getId());
         }
 
         // Handle primary flag
@@ -168,6 +177,7 @@ public class BankAccountServiceImpl implements BankAccountService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal getBankBalance(User user, Long id) {
         BankAccount bankAccount = bankAccountRepository.findByUserAndId(user, id)
                 .orElseThrow(() -> new RuntimeException("Bank account not found"));
@@ -181,17 +191,20 @@ public class BankAccountServiceImpl implements BankAccountService {
         BankAccount bankAccount = bankAccountRepository.findByUserAndId(user, bankAccountId)
                 .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
-        if (passwordEncoder.matches(upiPin, bankAccount.getUpiPin())) {
+        if (matchesUpiPin(bankAccount, upiPin)) {
             return new MessageResponse("UPI PIN validated successfully", true);
         } else {
             return new MessageResponse("Invalid UPI PIN", false);
         }
     }
 
+    @Override
+    public boolean matchesUpiPin(BankAccount bankAccount, String upiPin) {
+        return passwordEncoder.matches(upiPin, bankAccount.getUpiPin());
+    }
+
     private BankAccountResponse convertToDto(BankAccount bankAccount) {
-        BankAccountResponse response = modelMapper.map(bankAccount, BankAccountResponse.class);
-        // Mask account number for security
-        response.setAccountNumber(MaskingUtil.maskAccountNumber(bankAccount.getAccountNumber()));
-        return response;
+        // Account number is masked by the mapper
+        return bankAccountMapper.toResponse(bankAccount);
     }
 }
\ No newline at end of file
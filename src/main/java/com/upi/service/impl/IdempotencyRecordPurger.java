@@ -0,0 +1,43 @@
+package com.upi.service.impl;
+
+import com.upi.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes stored idempotency keys older than the idempotency TTL, which the table otherwise keeps forever.
+ * A key is honoured for at least the TTL; once purged, the same key starts a new payment.
+ */
+@Component
+public class IdempotencyRecordPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyRecordPurger.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${upi.app.idempotency.ttlMs:86400000}")
+    private long ttlMs;
+
+    @Scheduled(fixedDelayString = "${upi.app.idempotency.purgeIntervalMs:3600000}",
+            initialDelayString = "${upi.app.idempotency.purgeIntervalMs:3600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(ttlMs * 1_000_000);
+        Integer deleted = new TransactionTemplate(transactionManager)
+                .execute(status -> idempotencyRecordRepository.deleteCreatedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} idempotency keys created before {}", deleted, cutoff);
+        }
+    }
+}
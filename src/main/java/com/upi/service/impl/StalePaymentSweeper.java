@@ -0,0 +1,69 @@
+package com.upi.service.impl;
+
+import com.upi.cache.RecentTransactionCache;
+import com.upi.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails submitted payments that stayed INITIATED or PROCESSING past the cutoff. Their queued work and
+ * UPI PIN live only in the memory of the node that accepted them, so after a crash or restart nothing
+ * else would ever move them to a final state and clients polling by UTR would wait forever.
+ *
+ * Runs once the application is ready and then periodically. Only rows older than the cutoff are
+ * touched, so payments still queued on a live node are left alone.
+ */
+@Component
+public class StalePaymentSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StalePaymentSweeper.class);
+
+    static final String FAILURE_REASON = "Payment was not processed in time, please retry";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Value("${upi.app.paymentRecovery.staleAfterMs:600000}")
+    private long staleAfterMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        sweep();
+    }
+
+    @Scheduled(fixedDelayString = "${upi.app.paymentRecovery.intervalMs:60000}",
+            initialDelayString = "${upi.app.paymentRecovery.intervalMs:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        List<Long> affectedUserIds = new ArrayList<>();
+        Integer failed = new TransactionTemplate(transactionManager).execute(status -> {
+            affectedUserIds.addAll(transactionRepository.findPartyUserIdsOfPendingCreatedBefore(
+                    TransactionRepository.PENDING_STATUSES, cutoff));
+            return transactionRepository.failPendingCreatedBefore(TransactionRepository.PENDING_STATUSES, cutoff,
+                    FAILURE_REASON);
+        });
+        if (failed != null && failed > 0) {
+            // Committed, so a buffer reloaded from here on sees the failed rows
+            affectedUserIds.forEach(recentTransactionCache::invalidate);
+            logger.warn("Failed {} submitted payments still pending since before {}", failed, cutoff);
+        }
+    }
+}
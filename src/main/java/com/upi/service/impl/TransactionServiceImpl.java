@@ -1,31 +1,86 @@
 package com.upi.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.upi.cache.IdempotencyCache;
+import com.upi.cache.RecentTransactionCache;
+import com.upi.cache.VpaBloomFilter;
+import com.upi.cache.VpaCache;
+import com.upi.dto.transaction.BulkPayoutLeg;
+import com.upi.dto.transaction.BulkPayoutLegResult;
+import com.upi.dto.transaction.BulkPayoutRequest;
+import com.upi.dto.transaction.BulkPayoutResponse;
+import com.upi.dto.transaction.PaymentAuthorizationRequest;
+import com.upi.dto.transaction.PaymentAuthorizationResponse;
+import com.upi.dto.transaction.TransactionCursor;
 import com.upi.dto.transaction.TransactionRequest;
 import com.upi.dto.transaction.TransactionResponse;
+import com.upi.dto.transaction.TransactionSlice;
+import com.upi.dto.vpa.VpaSummary;
+import com.upi.lock.AccountLockManager;
+import com.upi.mapper.TransactionMapper;
+import com.upi.metrics.PaymentMetrics;
+import com.upi.metrics.PaymentMetrics.Stage;
 import com.upi.model.BankAccount;
+import com.upi.model.IdempotencyRecord;
 import com.upi.model.Transaction;
 import com.upi.model.Transaction.TransactionStatus;
 import com.upi.model.Transaction.TransactionType;
 import com.upi.model.User;
 import com.upi.model.VirtualPaymentAddress;
 import com.upi.repository.BankAccountRepository;
+import com.upi.repository.IdempotencyRecordRepository;
+import com.upi.repository.TransactionBatchRepository;
 import com.upi.repository.TransactionRepository;
 import com.upi.repository.VirtualPaymentAddressRepository;
+import com.upi.security.payment.PaymentTokenManager;
 import com.upi.service.BankAccountService;
 import com.upi.service.TransactionService;
-import com.upi.service.VpaService;
-import org.modelmapper.ModelMapper;
+import com.upi.util.UtrGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,223 +99,859 @@ public class TransactionServiceImpl implements TransactionService {
     private BankAccountService bankAccountService;
 
     @Autowired
-    private VpaService vpaService;
+    private TransactionMapper transactionMapper;
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private UtrGenerator utrGenerator;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Autowired
+    private VpaCache vpaCache;
+
+    @Autowired
+    private VpaBloomFilter vpaBloomFilter;
+
+    @Autowired
+    private ThreadPoolTaskExecutor paymentExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PaymentTokenManager paymentTokenManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private PaymentMetrics paymentMetrics;
+
+    private TransactionTemplate transactionTemplate;
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
+
+    private static final int BULK_PAYOUT_ATTEMPTS = 3;
+
+    private static final int VPA_LOOKUP_CHUNK = 1000;
+
+    private static final int EXPORT_CHUNK_ROWS = 500;
+
+    @PostConstruct
+    public void init() {
+        // Worker stages and post-commit bookkeeping each run in their own transaction
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
-    @Transactional
     public TransactionResponse initiateTransaction(User user, TransactionRequest transactionRequest) {
-        // Validate sender VPA belongs to the user
-        VirtualPaymentAddress senderVpa = vpaRepository.findByAddress(transactionRequest.getSenderVpa())
-                .orElseThrow(() -> new RuntimeException("Sender VPA not found"));
+        return executePayment(user, transactionRequest, response -> { });
+    }
 
-        if (!senderVpa.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("You are not authorized to use this VPA");
+    /**
+     * Runs one payment in its own database transaction; {@code beforeCommit} writes anything that must commit with it.
+     */
+    private TransactionResponse executePayment(User user, TransactionRequest transactionRequest,
+                                               Consumer<TransactionResponse> beforeCommit) {
+        long start = System.nanoTime();
+        String type = metricType(transactionRequest);
+        try {
+            // Queue on the account locks before the transaction starts, so a payment waiting behind a busy
+            // account holds no pooled connection. The locks are released after commit or rollback.
+            PaymentParties parties = resolvePaymentParties(user, transactionRequest);
+            try (AccountLockManager.Handle locks = lockAccounts(parties.getSenderBankAccountId(),
+                    parties.getReceiverBankAccountId())) {
+                TransactionResponse response = transactionTemplate.execute(status -> {
+                    TransactionResponse completed = executeTransaction(user, transactionRequest, parties);
+                    beforeCommit.accept(completed);
+                    return completed;
+                });
+                paymentMetrics.recordOutcome(type, TransactionStatus.COMPLETED.name());
+                return response;
+            }
+        } catch (RuntimeException e) {
+            paymentMetrics.recordFailure(type, e.getMessage());
+            throw e;
+        } finally {
+            paymentMetrics.recordStage(Stage.TOTAL, start);
         }
+    }
 
-        // Validate receiver VPA exists
-        if (!vpaService.validateVpa(transactionRequest.getReceiverVpa())) {
-            throw new RuntimeException("Receiver VPA is invalid or does not exist");
+    private TransactionResponse executeTransaction(User user, TransactionRequest transactionRequest, PaymentParties parties) {
+        // Load both VPAs with their bank accounts and check they still route to the locked accounts
+        PaymentContext context = loadPaymentContext(user, transactionRequest, parties);
+
+        // Validate UPI PIN or payment authorization
+        authorizePayment(user, context.getSenderBankAccount(), transactionRequest);
+
+        // Create transaction
+        Transaction transaction = buildTransaction(context.getSenderVpa(), transactionRequest);
+        transaction.setReceiverVpa(context.getReceiverVpa());
+
+        // Process the transaction (in a real system, this would involve communication with banks)
+        try {
+            // Mock bank transfer; the conditional debit doubles as the balance check
+            transferFunds(context.getSenderBankAccount().getId(), context.getReceiverBankAccount().getId(),
+                    transactionRequest.getAmount());
+        } catch (Exception e) {
+            // The whole payment rolls back, so there is no FAILED row to keep
+            throw new RuntimeException("Transaction failed: " + e.getMessage());
         }
 
-        VirtualPaymentAddress receiverVpa = vpaRepository.findByAddress(transactionRequest.getReceiverVpa())
-                .orElseThrow(() -> new RuntimeException("Receiver VPA not found"));
+        // Insert the transaction once, already completed
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setCompletedAt(LocalDateTime.now());
+        Transaction savedTransaction = paymentMetrics.time(Stage.PERSIST, () -> transactionRepository.save(transaction));
 
-        // Validate UPI PIN
-        BankAccount senderBankAccount = senderVpa.getBankAccount();
-        if (!bankAccountService.validateUpiPin(user, senderBankAccount.getId(), transactionRequest.getUpiPin()).isSuccess()) {
-            throw new RuntimeException("Invalid UPI PIN");
+        TransactionResponse response = paymentMetrics.time(Stage.MAP, () -> convertToDto(savedTransaction));
+        recordRecentOnCommit(List.of(user.getId(), context.getReceiverVpa().getUser().getId()), response);
+        return response;
+    }
+
+    @Override
+    public TransactionResponse initiateTransaction(User user, TransactionRequest transactionRequest, String idempotencyKey) {
+        if (idempotencyKey.length() > 100) {
+            throw new RuntimeException("Idempotency-Key must be at most 100 characters");
         }
 
-        // Check if sender has sufficient balance
-        BigDecimal senderBalance = bankAccountService.getBankBalance(user, senderBankAccount.getId());
-        if (senderBalance.compareTo(transactionRequest.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        String cacheKey = user.getId() + ":" + idempotencyKey;
+        String requestHash = hashRequest(transactionRequest);
+
+        // Duplicates of an attempt that is in flight or recently completed on this node are answered here
+        TransactionResponse cached = idempotencyCache.claimOrAwait(cacheKey, requestHash);
+        if (cached != null) {
+            return cached;
         }
 
-        // Generate UTR number
-        String utr = generateUtrNumber();
+        try {
+            TransactionResponse response = findIdempotentResult(user, idempotencyKey, requestHash)
+                    .orElseGet(() -> executeIdempotent(user, transactionRequest, idempotencyKey, requestHash));
+            idempotencyCache.complete(cacheKey, response);
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyCache.fail(cacheKey, e);
+            throw e;
+        }
+    }
 
-        // Create transaction
-        Transaction transaction = Transaction.builder()
-                .utrNumber(utr)
-                .senderVpa(senderVpa)
-                .senderVpaAddress(transactionRequest.getSenderVpa())
-                .receiverVpa(receiverVpa)
-                .receiverVpaAddress(transactionRequest.getReceiverVpa())
-                .amount(transactionRequest.getAmount())
-                .description(transactionRequest.getDescription())
-                .type(transactionRequest.getTransactionType() != null ? TransactionType.valueOf(transactionRequest.getTransactionType()) : TransactionType.P2P)
-                .status(TransactionStatus.INITIATED)
+    @Override
+    public BulkPayoutResponse initiateBulkPayout(User user, BulkPayoutRequest bulkPayoutRequest) {
+        // The sender's account is locked before any transaction starts, as for single payments
+        VpaSummary sender = resolveSender(user, bulkPayoutRequest.getSenderVpa());
+        try (AccountLockManager.Handle locks = lockAccounts(sender.getBankAccountId())) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> executeBulkPayout(user, bulkPayoutRequest, sender));
+                } catch (BalanceChangedException e) {
+                    // Another node drained the sender between our balance read and the debit; the attempt rolled back
+                    if (attempt == BULK_PAYOUT_ATTEMPTS) {
+                        throw new RuntimeException("Sender balance changed during bulk payout, please retry");
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public PaymentAuthorizationResponse authorizePayments(User user, PaymentAuthorizationRequest authorizationRequest) {
+        VpaSummary senderVpa = vpaCache.get(authorizationRequest.getSenderVpa(), vpaRepository::findSummaryByAddress)
+                .orElseThrow(() -> new RuntimeException("Sender VPA not found"));
+
+        if (!senderVpa.getUserId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to use this VPA");
+        }
+
+        BankAccount senderBankAccount = bankAccountRepository.findById(senderVpa.getBankAccountId())
+                .orElseThrow(() -> new RuntimeException("Sender bank account not found"));
+        verifyUpiPin(senderBankAccount, authorizationRequest.getUpiPin());
+
+        PaymentTokenManager.Grant grant = paymentTokenManager.issue(
+                user.getId(), senderBankAccount.getId(), authorizationRequest.getDeviceId());
+        return PaymentAuthorizationResponse.builder()
+                .authorizationToken(grant.getToken())
+                .senderVpa(authorizationRequest.getSenderVpa())
+                .perPaymentLimit(grant.getPerPaymentLimit())
+                .maxPayments(grant.getMaxPayments())
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(grant.getExpiresAt()), ZoneId.systemDefault()))
                 .build();
+    }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
+    @Override
+    @Transactional
+    public TransactionResponse submitTransaction(User user, TransactionRequest transactionRequest) {
+        // Shed load before writing anything when the workers are already saturated
+        if (paymentExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+            throw new RuntimeException("Payment queue is full, please retry");
+        }
 
-        // Process the transaction (in a real system, this would involve communication with banks)
+        // Only ownership is checked up front; everything else runs on the payment workers
+        VirtualPaymentAddress senderVpa = resolveSenderVpa(user, transactionRequest.getSenderVpa());
+
+        Transaction savedTransaction = transactionRepository.save(buildTransaction(senderVpa, transactionRequest));
+        Long transactionId = savedTransaction.getId();
+
+        // Hand over once the INITIATED row is visible to the workers. The UPI PIN lives only in the queued task.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    paymentExecutor.execute(() -> processSubmittedTransaction(transactionId, user, transactionRequest));
+                } catch (RejectedExecutionException e) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            markFailed(transactionId, "Payment queue is full, please retry"));
+                }
+            }
+        });
+
+        return convertToDto(savedTransaction);
+    }
+
+    private void processSubmittedTransaction(Long transactionId, User user, TransactionRequest transactionRequest) {
         try {
-            // Mock bank transfer
-            // Deduct from sender's account
-            senderBankAccount.setBalance(senderBankAccount.getBalance().subtract(transactionRequest.getAmount()));
-            bankAccountRepository.save(senderBankAccount);
-
-            // Add to receiver's account
-            BankAccount receiverBankAccount = receiverVpa.getBankAccount();
-            receiverBankAccount.setBalance(receiverBankAccount.getBalance().add(transactionRequest.getAmount()));
-            bankAccountRepository.save(receiverBankAccount);
-
-            // Update transaction status
-            savedTransaction.setStatus(TransactionStatus.COMPLETED);
-            savedTransaction.setCompletedAt(LocalDateTime.now());
-            savedTransaction = transactionRepository.save(savedTransaction);
+            // Stage 1: mark as picked up so pollers can tell queued payments from in-flight ones
+            Integer pickedUp = transactionTemplate.execute(status -> transactionRepository.updateStatus(
+                    transactionId, TransactionStatus.INITIATED, TransactionStatus.PROCESSING));
+            if (pickedUp == null || pickedUp == 0) {
+                // Waited in the queue past the stale payment cutoff and was already failed
+                logger.warn("Transaction {} expired before it was processed", transactionId);
+                return;
+            }
+
+            // Stage 2: validation, debit and credit commit together, with the accounts locked before it starts
+            PaymentParties parties = resolvePaymentParties(user, transactionRequest);
+            try (AccountLockManager.Handle locks = lockAccounts(parties.getSenderBankAccountId(),
+                    parties.getReceiverBankAccountId())) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Transaction transaction = findTransaction(transactionId);
+                    PaymentContext context = loadPaymentContext(user, transactionRequest, parties);
+                    authorizePayment(user, context.getSenderBankAccount(), transactionRequest);
+
+                    transferFunds(context.getSenderBankAccount().getId(), context.getReceiverBankAccount().getId(),
+                            transaction.getAmount());
+
+                    // Rolls the transfer back if the stale payment sweep failed this row meanwhile
+                    Long receiverUserId = context.getReceiverVpa().getUser().getId();
+                    LocalDateTime completedAt = LocalDateTime.now();
+                    if (transactionRepository.completeProcessing(transactionId, context.getReceiverVpa(), completedAt) == 0) {
+                        throw new RuntimeException("Payment expired before it could be completed");
+                    }
+
+                    transaction.setStatus(TransactionStatus.COMPLETED);
+                    transaction.setCompletedAt(completedAt);
+                    recordRecentOnCommit(List.of(user.getId(), receiverUserId), convertToDto(transaction));
+                });
+            }
+            paymentMetrics.recordOutcome(metricType(transactionRequest), TransactionStatus.COMPLETED.name());
         } catch (Exception e) {
-            // Handle failure
-            savedTransaction.setStatus(TransactionStatus.FAILED);
-            savedTransaction.setFailureReason(e.getMessage());
-            savedTransaction = transactionRepository.save(savedTransaction);
-            throw new RuntimeException("Transaction failed: " + e.getMessage());
+            logger.warn("Transaction {} failed: {}", transactionId, e.getMessage());
+            paymentMetrics.recordFailure(metricType(transactionRequest), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> markFailed(transactionId, e.getMessage()));
         }
-
-        return convertToDto(savedTransaction);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TransactionResponse getTransactionByUtr(String utr) {
-        Transaction transaction = transactionRepository.findByUtrNumber(utr)
+        return transactionRepository.findResponseByUtrNumber(utr)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
-        return convertToDto(transaction);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getUserTransactions(User user, Pageable pageable) {
-        // Get all VPAs belonging to the user
-        List<VirtualPaymentAddress> userVpas = vpaRepository.findByUser(user);
-        List<String> userVpaAddresses = userVpas.stream()
-                .map(VirtualPaymentAddress::getAddress)
-                .collect(Collectors.toList());
-
-        // This method needs to be implemented in the repository
-        // For now, we'll use a workaround by getting all transactions and filtering
-        Page<Transaction> allTransactions = transactionRepository.findAll(pageable);
-        
-        // Filter transactions where user is either sender or receiver
-        List<Transaction> filteredTransactions = allTransactions.getContent().stream()
-                .filter(t -> userVpaAddresses.contains(t.getSenderVpaAddress()) || 
-                             userVpaAddresses.contains(t.getReceiverVpaAddress()))
-                .collect(Collectors.toList());
-        
-        // Create a new page with the filtered transactions
-        Page<Transaction> transactions = new PageImpl<>(filteredTransactions, pageable, filteredTransactions.size());
-
-        List<TransactionResponse> transactionResponses = transactions.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(transactionResponses, pageable, transactions.getTotalElements());
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Get transactions where user is either sender or receiver
+        return transactionRepository.findPageByVpaAddresses(userVpaAddresses, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getSentTransactions(User user, Pageable pageable) {
-        // Get all VPAs belonging to the user
-        List<VirtualPaymentAddress> userVpas = vpaRepository.findByUser(user);
-        List<String> userVpaAddresses = userVpas.stream()
-                .map(VirtualPaymentAddress::getAddress)
-                .collect(Collectors.toList());
-
-        // This method needs to be implemented in the repository
-        // For now, we'll use a workaround by getting all transactions and filtering
-        Page<Transaction> allTransactions = transactionRepository.findAll(pageable);
-        
-        // Filter transactions where user is sender
-        List<Transaction> filteredTransactions = allTransactions.getContent().stream()
-                .filter(t -> userVpaAddresses.contains(t.getSenderVpaAddress()))
-                .collect(Collectors.toList());
-        
-        // Create a new page with the filtered transactions
-        Page<Transaction> transactions = new PageImpl<>(filteredTransactions, pageable, filteredTransactions.size());
-
-        List<TransactionResponse> transactionResponses = transactions.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(transactionResponses, pageable, transactions.getTotalElements());
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Get transactions where user is sender
+        return transactionRepository.findPageBySenderVpaAddresses(userVpaAddresses, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getReceivedTransactions(User user, Pageable pageable) {
-        // Get all VPAs belonging to the user
-        List<VirtualPaymentAddress> userVpas = vpaRepository.findByUser(user);
-        List<String> userVpaAddresses = userVpas.stream()
-                .map(VirtualPaymentAddress::getAddress)
-                .collect(Collectors.toList());
-
-        // This method needs to be implemented in the repository
-        // For now, we'll use a workaround by getting all transactions and filtering
-        Page<Transaction> allTransactions = transactionRepository.findAll(pageable);
-        
-        // Filter transactions where user is receiver
-        List<Transaction> filteredTransactions = allTransactions.getContent().stream()
-                .filter(t -> userVpaAddresses.contains(t.getReceiverVpaAddress()))
-                .collect(Collectors.toList());
-        
-        // Create a new page with the filtered transactions
-        Page<Transaction> transactions = new PageImpl<>(filteredTransactions, pageable, filteredTransactions.size());
-
-        List<TransactionResponse> transactionResponses = transactions.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(transactionResponses, pageable, transactions.getTotalElements());
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Get transactions where user is receiver
+        return transactionRepository.findPageByReceiverVpaAddresses(userVpaAddresses, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getRecentTransactions(User user, int limit) {
-        // Get all VPAs belonging to the user
-        List<VirtualPaymentAddress> userVpas = vpaRepository.findByUser(user);
-        List<String> userVpaAddresses = userVpas.stream()
-                .map(VirtualPaymentAddress::getAddress)
-                .collect(Collectors.toList());
+        if (limit <= 0) {
+            return List.of();
+        }
 
-        // Get recent transactions where user is either sender or receiver
-        List<Transaction> transactions = transactionRepository.findBySenderVpaAddressInOrReceiverVpaAddressInOrderByCreatedAtDesc(
-                userVpaAddresses, userVpaAddresses);
+        return recentTransactionCache.getRecent(user.getId(), limit, n -> {
+            List<String> userVpaAddresses = getUserVpaAddresses(user);
+            if (userVpaAddresses.isEmpty()) {
+                return List.of();
+            }
 
-        // Limit the results
-        transactions = transactions.stream().limit(limit).collect(Collectors.toList());
+            // Get the newest transactions where user is either sender or receiver
+            return transactionRepository.findRecentByVpaAddresses(userVpaAddresses, PageRequest.of(0, n));
+        });
+    }
 
-        return transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Override
+    public void exportUserTransactions(User user, OutputStream out) throws IOException {
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+
+        // Read in keyset chunks outside any transaction: the connection goes back to the pool after each
+        // query instead of being held while a slow client drains the response
+        ObjectWriter writer = objectMapper.writerFor(TransactionResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Pageable chunk = PageRequest.of(0, EXPORT_CHUNK_ROWS);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.setRootValueSeparator(new SerializedString("\n"));
+            Slice<TransactionResponse> transactions = userVpaAddresses.isEmpty()
+                    ? null : transactionRepository.findFirstSliceByVpaAddresses(userVpaAddresses, chunk);
+            while (transactions != null && transactions.hasContent()) {
+                for (TransactionResponse transaction : transactions) {
+                    writer.writeValue(gen, transaction);
+                }
+                gen.flush();
+                if (!transactions.hasNext()) {
+                    break;
+                }
+                List<TransactionResponse> content = transactions.getContent();
+                TransactionResponse last = content.get(content.size() - 1);
+                transactions = transactionRepository.findSliceByVpaAddressesAfter(
+                        userVpaAddresses, last.getCreatedAt(), last.getId(), chunk);
+            }
+            gen.writeRaw('\n');
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getTransactionsByVpa(User user, String vpaAddress, Pageable pageable) {
         // Validate VPA belongs to the user
-        VirtualPaymentAddress vpa = vpaRepository.findByAddress(vpaAddress)
+        VpaSummary vpa = vpaCache.get(vpaAddress, vpaRepository::findSummaryByAddress)
                 .orElseThrow(() -> new RuntimeException("VPA not found"));
 
-        if (!vpa.getUser().getId().equals(user.getId())) {
+        if (!vpa.getUserId().equals(user.getId())) {
             throw new RuntimeException("You are not authorized to view transactions for this VPA");
         }
 
         // Get transactions where the specified VPA is either sender or receiver
-        Page<Transaction> transactions = transactionRepository.findBySenderVpaAddressOrReceiverVpaAddress(
-                vpaAddress, vpaAddress, pageable);
+        return transactionRepository.findPageByVpaAddresses(List.of(vpaAddress), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionSlice getUserTransactionSlice(User user, String cursor, int size) {
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return emptySlice(size);
+        }
 
-        List<TransactionResponse> transactionResponses = transactions.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        Pageable limit = PageRequest.of(0, size);
+        Slice<TransactionResponse> transactions;
+        if (StringUtils.hasText(cursor)) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findSliceByVpaAddressesAfter(
+                    userVpaAddresses, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            transactions = transactionRepository.findFirstSliceByVpaAddresses(userVpaAddresses, limit);
+        }
 
-        return new PageImpl<>(transactionResponses, pageable, transactions.getTotalElements());
+        return toTransactionSlice(transactions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionSlice getSentTransactionSlice(User user, String cursor, int size) {
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return emptySlice(size);
+        }
+
+        Pageable limit = PageRequest.of(0, size);
+        Slice<TransactionResponse> transactions;
+        if (StringUtils.hasText(cursor)) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findSliceBySenderVpaAddressesAfter(
+                    userVpaAddresses, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            transactions = transactionRepository.findFirstSliceBySenderVpaAddresses(userVpaAddresses, limit);
+        }
+
+        return toTransactionSlice(transactions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionSlice getReceivedTransactionSlice(User user, String cursor, int size) {
+        List<String> userVpaAddresses = getUserVpaAddresses(user);
+        if (userVpaAddresses.isEmpty()) {
+            return emptySlice(size);
+        }
+
+        Pageable limit = PageRequest.of(0, size);
+        Slice<TransactionResponse> transactions;
+        if (StringUtils.hasText(cursor)) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findSliceByReceiverVpaAddressesAfter(
+                    userVpaAddresses, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            transactions = transactionRepository.findFirstSliceByReceiverVpaAddresses(userVpaAddresses, limit);
+        }
+
+        return toTransactionSlice(transactions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionSlice getTransactionSliceByVpa(User user, String vpaAddress, String cursor, int size) {
+        // Validate VPA belongs to the user
+        VpaSummary vpa = vpaCache.get(vpaAddress, vpaRepository::findSummaryByAddress)
+                .orElseThrow(() -> new RuntimeException("VPA not found"));
+
+        if (!vpa.getUserId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to view transactions for this VPA");
+        }
+
+        List<String> vpaAddresses = List.of(vpaAddress);
+        Pageable limit = PageRequest.of(0, size);
+        Slice<TransactionResponse> transactions;
+        if (StringUtils.hasText(cursor)) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findSliceByVpaAddressesAfter(
+                    vpaAddresses, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            transactions = transactionRepository.findFirstSliceByVpaAddresses(vpaAddresses, limit);
+        }
+
+        return toTransactionSlice(transactions);
+    }
+
+    private TransactionSlice toTransactionSlice(Slice<TransactionResponse> transactions) {
+        List<TransactionResponse> content = transactions.getContent();
+        String nextCursor = null;
+        if (transactions.hasNext() && !content.isEmpty()) {
+            TransactionResponse last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new TransactionSlice(content, transactions.getSize(), transactions.hasNext(), nextCursor);
+    }
+
+    private TransactionSlice emptySlice(int size) {
+        return new TransactionSlice(List.of(), size, false, null);
+    }
+
+    private VirtualPaymentAddress resolveSenderVpa(User user, String senderVpaAddress) {
+        VpaSummary senderVpa = resolveSender(user, senderVpaAddress);
+        // Only needed as the transaction's foreign key, so a reference avoids loading the row
+        return vpaRepository.getReferenceById(senderVpa.getVpaId());
+    }
+
+    private VpaSummary resolveSender(User user, String senderVpaAddress) {
+        VpaSummary senderVpa = vpaCache.get(senderVpaAddress, vpaRepository::findSummaryByAddress)
+                .orElseThrow(() -> new RuntimeException("Sender VPA not found"));
+
+        if (!senderVpa.getUserId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to use this VPA");
+        }
+        return senderVpa;
+    }
+
+    private BulkPayoutResponse executeBulkPayout(User user, BulkPayoutRequest bulkPayoutRequest, VpaSummary sender) {
+        List<BulkPayoutLeg> legs = bulkPayoutRequest.getLegs();
+
+        // Sender and every receiver, with their bank accounts, in as few IN queries as possible
+        Set<String> addresses = new HashSet<>();
+        addresses.add(bulkPayoutRequest.getSenderVpa());
+        legs.forEach(leg -> addresses.add(leg.getReceiverVpa()));
+        Map<String, VirtualPaymentAddress> vpas = findVpasWithBankAccount(addresses);
+
+        VirtualPaymentAddress senderVpa = vpas.get(bulkPayoutRequest.getSenderVpa());
+        if (senderVpa == null) {
+            throw new RuntimeException("Sender VPA not found");
+        }
+        if (!senderVpa.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to use this VPA");
+        }
+
+        // One PIN check for the whole batch
+        BankAccount senderBankAccount = senderVpa.getBankAccount();
+        requireLockedAccount(senderBankAccount, sender.getBankAccountId());
+        verifyUpiPin(senderBankAccount, bulkPayoutRequest.getUpiPin());
+
+        BigDecimal available = bankAccountRepository.findBalanceById(senderBankAccount.getId());
+
+        TransactionType type = TransactionType.valueOf(bulkPayoutRequest.getTransactionType());
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        TreeMap<Long, BigDecimal> credits = new TreeMap<>();
+        Set<Long> affectedUserIds = new HashSet<>();
+        affectedUserIds.add(user.getId());
+        List<Transaction> transactions = new ArrayList<>(legs.size());
+        List<BulkPayoutLegResult> results = new ArrayList<>(legs.size());
+
+        for (int i = 0; i < legs.size(); i++) {
+            BulkPayoutLeg leg = legs.get(i);
+            VirtualPaymentAddress receiverVpa = vpas.get(leg.getReceiverVpa());
+            Transaction transaction = Transaction.builder()
+                    .utrNumber(generateUtrNumber())
+                    .senderVpa(senderVpa)
+                    .senderVpaAddress(bulkPayoutRequest.getSenderVpa())
+                    .receiverVpa(receiverVpa)
+                    .receiverVpaAddress(leg.getReceiverVpa())
+                    .amount(leg.getAmount())
+                    .description(leg.getDescription())
+                    .type(type)
+                    .createdAt(now)
+                    .build();
+
+            if (receiverVpa == null) {
+                transaction.setStatus(TransactionStatus.FAILED);
+                transaction.setFailureReason("Receiver VPA is invalid or does not exist");
+            } else if (totalDebit.add(leg.getAmount()).compareTo(available) > 0) {
+                transaction.setStatus(TransactionStatus.FAILED);
+                transaction.setFailureReason("Insufficient balance");
+            } else {
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                transaction.setCompletedAt(now);
+                totalDebit = totalDebit.add(leg.getAmount());
+                credits.merge(receiverVpa.getBankAccount().getId(), leg.getAmount(), BigDecimal::add);
+                affectedUserIds.add(receiverVpa.getUser().getId());
+            }
+
+            transactions.add(transaction);
+            results.add(new BulkPayoutLegResult(i, leg.getReceiverVpa(), leg.getAmount(), transaction.getUtrNumber(),
+                    transaction.getStatus().name(), transaction.getFailureReason()));
+        }
+
+        applyBulkBalances(senderBankAccount.getId(), totalDebit, credits, now);
+        transactionBatchRepository.insertAll(transactions);
+
+        // Too many rows to push individually; affected users reload their recent activity on next read
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                affectedUserIds.forEach(recentTransactionCache::invalidate);
+            }
+        });
+
+        int completed = (int) results.stream().filter(r -> TransactionStatus.COMPLETED.name().equals(r.getStatus())).count();
+        return new BulkPayoutResponse(bulkPayoutRequest.getSenderVpa(), legs.size(), completed, legs.size() - completed,
+                totalDebit, results);
+    }
+
+    private void applyBulkBalances(Long senderAccountId, BigDecimal totalDebit, TreeMap<Long, BigDecimal> credits,
+                                   LocalDateTime now) {
+        // Legs paying the sender's own account net out against the debit
+        BigDecimal selfCredit = credits.remove(senderAccountId);
+        BigDecimal netDebit = selfCredit != null ? totalDebit.subtract(selfCredit) : totalDebit;
+
+        // Same ascending account id order as single payments, so bulk and single transfers cannot deadlock
+        transactionBatchRepository.creditAll(credits.headMap(senderAccountId, false), now);
+        if (netDebit.signum() > 0 && bankAccountRepository.debit(senderAccountId, netDebit, now) == 0) {
+            throw new BalanceChangedException();
+        }
+        transactionBatchRepository.creditAll(credits.tailMap(senderAccountId, false), now);
+    }
+
+    private Map<String, VirtualPaymentAddress> findVpasWithBankAccount(Collection<String> addresses) {
+        List<String> remaining = new ArrayList<>(addresses);
+        Map<String, VirtualPaymentAddress> vpas = new HashMap<>(remaining.size() * 2);
+        for (int from = 0; from < remaining.size(); from += VPA_LOOKUP_CHUNK) {
+            List<String> chunk = remaining.subList(from, Math.min(from + VPA_LOOKUP_CHUNK, remaining.size()));
+            vpaRepository.findWithBankAccountByAddressIn(chunk).forEach(vpa -> vpas.put(vpa.getAddress(), vpa));
+        }
+        return vpas;
+    }
+
+    private TransactionResponse executeIdempotent(User user, TransactionRequest transactionRequest,
+                                                  String idempotencyKey, String requestHash) {
+        try {
+            // The key is recorded in the payment's own transaction, so a committed payment always has its record
+            return executePayment(user, transactionRequest, response ->
+                    idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                            .userId(user.getId())
+                            .idempotencyKey(idempotencyKey)
+                            .requestHash(requestHash)
+                            .utrNumber(response.getUtrNumber())
+                            .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed the same key first; our payment rolled back, so answer with theirs
+            return findIdempotentResult(user, idempotencyKey, requestHash).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<TransactionResponse> findIdempotentResult(User user, String idempotencyKey, String requestHash) {
+        return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), idempotencyKey)
+                .map(record -> {
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        throw new RuntimeException("Idempotency-Key was already used for a different request");
+                    }
+                    return getTransactionByUtr(record.getUtrNumber());
+                });
+    }
+
+    private String hashRequest(TransactionRequest transactionRequest) {
+        // The UPI PIN and authorization token are deliberately left out of the fingerprint
+        String canonical = transactionRequest.getSenderVpa() + '\n' + transactionRequest.getReceiverVpa() + '\n'
+                + transactionRequest.getAmount().stripTrailingZeros().toPlainString() + '\n'
+                + transactionRequest.getTransactionType() + '\n' + transactionRequest.getDescription();
+        return DigestUtils.md5DigestAsHex(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PaymentParties resolvePaymentParties(User user, TransactionRequest transactionRequest) {
+        return paymentMetrics.time(Stage.VPA_RESOLVE, () -> lookupPaymentParties(user, transactionRequest));
+    }
+
+    private PaymentParties lookupPaymentParties(User user, TransactionRequest transactionRequest) {
+        // Reject unknown or foreign VPAs from the cache; runs before the payment's transaction opens
+        VpaSummary sender = resolveSender(user, transactionRequest.getSenderVpa());
+        VpaSummary receiver = Optional.of(transactionRequest.getReceiverVpa())
+                .filter(vpaBloomFilter::mightContain)
+                .flatMap(address -> vpaCache.get(address, vpaRepository::findSummaryByAddress))
+                .orElseThrow(() -> new RuntimeException("Receiver VPA is invalid or does not exist"));
+        return new PaymentParties(sender.getBankAccountId(), receiver.getBankAccountId());
+    }
+
+    private PaymentContext loadPaymentContext(User user, TransactionRequest transactionRequest, PaymentParties parties) {
+        // Both VPAs and their bank accounts in one query; owners are only compared by foreign key. Resolving the
+        // parties beforehand added one summary query per address the VpaCache missed
+        Map<String, VirtualPaymentAddress> vpas = vpaRepository.findWithBankAccountByAddressIn(
+                        List.of(transactionRequest.getSenderVpa(), transactionRequest.getReceiverVpa())).stream()
+                .collect(Collectors.toMap(VirtualPaymentAddress::getAddress, Function.identity()));
+
+        VirtualPaymentAddress senderVpa = vpas.get(transactionRequest.getSenderVpa());
+        if (senderVpa == null) {
+            throw new RuntimeException("Sender VPA not found");
+        }
+        if (!senderVpa.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to use this VPA");
+        }
+
+        VirtualPaymentAddress receiverVpa = vpas.get(transactionRequest.getReceiverVpa());
+        if (receiverVpa == null) {
+            throw new RuntimeException("Receiver VPA is invalid or does not exist");
+        }
+
+        requireLockedAccount(senderVpa.getBankAccount(), parties.getSenderBankAccountId());
+        requireLockedAccount(receiverVpa.getBankAccount(), parties.getReceiverBankAccountId());
+        return new PaymentContext(senderVpa, receiverVpa);
+    }
+
+    private void requireLockedAccount(BankAccount bankAccount, Long lockedAccountId) {
+        // A VPA moved to another account after it was resolved from the cache; the lock no longer covers it
+        if (!bankAccount.getId().equals(lockedAccountId)) {
+            throw new RuntimeException("VPA was updated during the payment, please retry");
+        }
+    }
+
+    private void authorizePayment(User user, BankAccount senderBankAccount, TransactionRequest transactionRequest) {
+        paymentMetrics.time(Stage.PIN_VERIFY, () -> checkAuthorization(user, senderBankAccount, transactionRequest));
+    }
+
+    private void checkAuthorization(User user, BankAccount senderBankAccount, TransactionRequest transactionRequest) {
+        if (!StringUtils.hasText(transactionRequest.getAuthorizationToken())) {
+            verifyUpiPin(senderBankAccount, transactionRequest.getUpiPin());
+            return;
+        }
+
+        // An HMAC check instead of BCrypt; the use is handed back if the payment rolls back
+        String grantId = paymentTokenManager.consume(transactionRequest.getAuthorizationToken(), user.getId(),
+                senderBankAccount.getId(), transactionRequest.getDeviceId(), transactionRequest.getAmount());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    paymentTokenManager.release(grantId);
+                }
+            }
+        });
+    }
+
+    private void verifyUpiPin(BankAccount senderBankAccount, String upiPin) {
+        if (!StringUtils.hasText(upiPin)) {
+            throw new RuntimeException("UPI PIN is required");
+        }
+
+        if (!bankAccountService.matchesUpiPin(senderBankAccount, upiPin)) {
+            throw new RuntimeException("Invalid UPI PIN");
+        }
+    }
+
+    private Transaction buildTransaction(VirtualPaymentAddress senderVpa, TransactionRequest transactionRequest) {
+        return Transaction.builder()
+                .utrNumber(generateUtrNumber())
+                .senderVpa(senderVpa)
+                .senderVpaAddress(transactionRequest.getSenderVpa())
+                .receiverVpaAddress(transactionRequest.getReceiverVpa())
+                .amount(transactionRequest.getAmount())
+                .description(transactionRequest.getDescription())
+                .type(transactionRequest.getTransactionType() != null ? TransactionType.valueOf(transactionRequest.getTransactionType()) : TransactionType.P2P)
+                .status(TransactionStatus.INITIATED)
+                .build();
+    }
+
+    private Transaction findTransaction(Long transactionId) {
+        return transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    }
+
+    private void markFailed(Long transactionId, String failureReason) {
+        // A row that already reached a final state keeps it
+        if (transactionRepository.failPending(transactionId, TransactionRepository.PENDING_STATUSES, failureReason) > 0) {
+            invalidateRecentOnCommit(transactionRepository.findPartyUserIds(transactionId));
+        }
+    }
+
+    private AccountLockManager.Handle lockAccounts(Long... accountIds) {
+        // Must be called outside any transaction and held until it ends, so the next payment on these
+        // accounts waits here rather than on our row locks
+        return paymentMetrics.time(Stage.ACCOUNT_LOCK, () -> accountLockManager.lock(accountIds));
+    }
+
+    private void transferFunds(Long senderAccountId, Long receiverAccountId, BigDecimal amount) {
+        // Touch rows in ascending account id order so that opposing transfers cannot deadlock on row locks
+        LocalDateTime now = LocalDateTime.now();
+        if (senderAccountId.compareTo(receiverAccountId) <= 0) {
+            debit(senderAccountId, amount, now);
+            credit(receiverAccountId, amount, now);
+        } else {
+            credit(receiverAccountId, amount, now);
+            debit(senderAccountId, amount, now);
+        }
+    }
+
+    private void debit(Long accountId, BigDecimal amount, LocalDateTime now) {
+        // The conditional UPDATE is the balance check, so this stage covers both
+        long start = System.nanoTime();
+        int updated = bankAccountRepository.debit(accountId, amount, now);
+        paymentMetrics.recordStage(Stage.DEBIT, start);
+        if (updated == 0) {
+            throw new RuntimeException("Insufficient balance");
+        }
+    }
+
+    private void credit(Long accountId, BigDecimal amount, LocalDateTime now) {
+        long start = System.nanoTime();
+        int updated = bankAccountRepository.credit(accountId, amount, now);
+        paymentMetrics.recordStage(Stage.CREDIT, start);
+        if (updated == 0) {
+            throw new RuntimeException("Receiver bank account not found");
+        }
+    }
+
+    private String metricType(TransactionRequest transactionRequest) {
+        // Only known types become series labels
+        String type = transactionRequest.getTransactionType();
+        if (type == null) {
+            return TransactionType.P2P.name();
+        }
+        for (TransactionType known : TransactionType.values()) {
+            if (known.name().equals(type)) {
+                return type;
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private void recordRecentOnCommit(List<Long> userIds, TransactionResponse response) {
+        // Only publish to the recent-activity cache once the payment is durable
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userIds.stream().distinct().forEach(userId -> recentTransactionCache.record(userId, response));
+            }
+        });
+    }
+
+    private void invalidateRecentOnCommit(List<Long> userIds) {
+        // Buffers may hold the row as INITIATED or PROCESSING; dropped after commit so a reload sees FAILED
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userIds.forEach(recentTransactionCache::invalidate);
+            }
+        });
+    }
+
+    private List<String> getUserVpaAddresses(User user) {
+        // Get the addresses of all VPAs belonging to the user
+        return vpaRepository.findAddressesByUser(user);
     }
 
     private String generateUtrNumber() {
-        // Generate a unique UTR number
-        return "UPI" + UUID.randomUUID().toString().replaceAll("-", "").substring(0, 16).toUpperCase();
+        // Time-ordered, so new UTRs append to the right edge of the unique index
+        return utrGenerator.nextUtr();
     }
 
     private TransactionResponse convertToDto(Transaction transaction) {
-        return modelMapper.map(transaction, TransactionResponse.class);
+        return transactionMapper.toResponse(transaction);
+    }
+
+    /**
+     * Everything a payment needs about both parties, resolved up front.
+     */
+    @Data
+    @AllArgsConstructor
+    private static class PaymentContext {
+        private VirtualPaymentAddress senderVpa;
+        private VirtualPaymentAddress receiverVpa;
+
+        BankAccount getSenderBankAccount() {
+            return senderVpa.getBankAccount();
+        }
+
+        BankAccount getReceiverBankAccount() {
+            return receiverVpa.getBankAccount();
+        }
+    }
+
+    /**
+     * Bank accounts behind both VPAs of a payment, resolved from the VPA cache before the accounts are locked.
+     */
+    @Data
+    @AllArgsConstructor
+    private static class PaymentParties {
+        private Long senderBankAccountId;
+        private Long receiverBankAccountId;
+    }
+
+    /**
+     * Signals that a conditional debit found less money than the balance read earlier in the same attempt.
+     */
+    private static class BalanceChangedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
     }
 }
\ No newline at end of file
@@ -1,20 +1,25 @@
 package com.upi.service.impl;
 
+import com.upi.cache.RecentTransactionCache;
+import com.upi.cache.VpaBloomFilter;
+import com.upi.cache.VpaCache;
 import com.upi.dto.MessageResponse;
 import com.upi.dto.vpa.VpaRequest;
 import com.upi.dto.vpa.VpaResponse;
+import com.upi.dto.vpa.VpaSummary;
+import com.upi.mapper.VpaMapper;
 import com.upi.model.BankAccount;
 import com.upi.model.User;
 import com.upi.model.VirtualPaymentAddress;
 import com.upi.repository.BankAccountRepository;
 import com.upi.repository.VirtualPaymentAddressRepository;
 import com.upi.service.VpaService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -28,19 +33,30 @@ public class VpaServiceImpl implements VpaService {
     private BankAccountRepository bankAccountRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private VpaMapper vpaMapper;
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Autowired
+    private VpaCache vpaCache;
+
+    @Autowired
+    private VpaBloomFilter vpaBloomFilter;
 
     private static final Pattern VPA_PATTERN = Pattern.compile("^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$");
 
     @Override
+    @Transactional(readOnly = true)
     public List<VpaResponse> getAllVpas(User user) {
-        List<VirtualPaymentAddress> vpas = vpaRepository.findByUser(user);
+        List<VirtualPaymentAddress> vpas = vpaRepository.findWithBankAccountByUser(user);
         return vpas.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public VpaResponse getVpaById(User user, Long id) {
         VirtualPaymentAddress vpa = vpaRepository.findByUserAndId(user, id)
                 .orElseThrow(() -> new RuntimeException("VPA not found"));
@@ -48,8 +64,12 @@ public class VpaServiceImpl implements VpaService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public VpaResponse getVpaByAddress(String address) {
-        VirtualPaymentAddress vpa = vpaRepository.findByAddress(address)
+        // Unknown addresses are answered from the Bloom filter or the cache without a query
+        VpaSummary summary = findSummary(address)
+                .orElseThrow(() -> new RuntimeException("VPA not found"));
+        VirtualPaymentAddress vpa = vpaRepository.findById(summary.getVpaId())
                 .orElseThrow(() -> new RuntimeException("VPA not found"));
         return convertToDto(vpa);
     }
@@ -83,7 +103,7 @@ public class VpaServiceImpl implements VpaService {
                 .build();
 
         // If this is the first VPA or marked as primary, ensure it's set as primary
-        if (vpaRequest.isPrimary() || vpaRepository.findByUser(user).isEmpty()) {
+        if (vpaRequest.isPrimary() || !vpaRepository.existsByUser(user)) {
             // Reset primary flag on all other VPAs
             vpaRepository.findByUserAndPrimaryIsTrue(user)
                     .ifPresent(existingPrimary -> {
@@ -94,6 +114,9 @@ public class VpaServiceImpl implements VpaService {
         }
 
         VirtualPaymentAddress savedVpa = vpaRepository.save(vpa);
+        vpaBloomFilter.add(vpaAddress);
+        vpaCache.invalidate(vpaAddress);
+        recentTransactionCache.invalidate(user.getId());
         return convertToDto(savedVpa);
     }
 
@@ -113,6 +136,7 @@ public class VpaServiceImpl implements VpaService {
             }
 
             vpa.setBankAccount(newBankAccount);
+            vpaCache.invalidate(vpa.getAddress());
         }
 
         // Check if VPA address is changing
@@ -122,7 +146,11 @@ public class VpaServiceImpl implements VpaService {
             if (vpaRepository.existsByAddress(newVpaAddress)) {
                 throw new RuntimeException("This VPA is already taken. Please choose a different username or handle.");
             }
+            // Both the old address (now gone) and the new one (possibly cached as unknown) are stale
+            vpaCache.invalidate(vpa.getAddress(), newVpaAddress);
+            vpaBloomFilter.add(newVpaAddress);
             vpa.setAddress(newVpaAddress);
+            recentTransactionCache.invalidate(user.getId());
         }
 
         // Handle primary flag
@@ -147,11 +175,13 @@ public class VpaServiceImpl implements VpaService {
                 .orElseThrow(() -> new RuntimeException("VPA not found"));
 
         // Check if this is the primary VPA and user has other VPAs
-        if (vpa.isPrimary() && vpaRepository.findByUser(user).size() > 1) {
+        if (vpa.isPrimary() && vpaRepository.countByUser(user) > 1) {
             throw new RuntimeException("Cannot delete primary VPA. Please set another VPA as primary first.");
         }
 
         vpaRepository.delete(vpa);
+        vpaCache.invalidate(vpa.getAddress());
+        recentTransactionCache.invalidate(user.getId());
         return new MessageResponse("VPA deleted successfully", true);
     }
 
@@ -176,6 +206,7 @@ public class VpaServiceImpl implements VpaService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<VpaResponse> getVpasByBankAccount(User user, Long bankAccountId) {
         BankAccount bankAccount = bankAccountRepository.findByUserAndId(user, bankAccountId)
                 .orElseThrow(() -> new RuntimeException("Bank account not found"));
@@ -192,10 +223,17 @@ public class VpaServiceImpl implements VpaService {
             return false;
         }
 
-        return vpaRepository.existsByAddress(vpaAddress);
+        return findSummary(vpaAddress).isPresent();
+    }
+
+    private Optional<VpaSummary> findSummary(String address) {
+        if (!vpaBloomFilter.mightContain(address)) {
+            return Optional.empty();
+        }
+        return vpaCache.get(address, vpaRepository::findSummaryByAddress);
     }
 
     private VpaResponse convertToDto(VirtualPaymentAddress vpa) {
-        return modelMapper.map(vpa, VpaResponse.class);
+        return vpaMapper.toResponse(vpa);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.upi.util;
 
+import java.util.Arrays;
+
 public class MaskingUtil {
 
     /**
@@ -12,13 +14,11 @@ public class MaskingUtil {
         }
         int visibleDigits = 4;
         int length = accountNumber.length();
-        String lastFourDigits = accountNumber.substring(length - visibleDigits);
-        StringBuilder masked = new StringBuilder();
-        for (int i = 0; i < length - visibleDigits; i++) {
-            masked.append("X");
-        }
-        masked.append(lastFourDigits);
-        return masked.toString();
+        // One char array and one String, instead of a StringBuilder grown a character at a time
+        char[] masked = new char[length];
+        Arrays.fill(masked, 0, length - visibleDigits, 'X');
+        accountNumber.getChars(length - visibleDigits, length, masked, length - visibleDigits);
+        return new String(masked);
     }
 
     /**
@@ -0,0 +1,64 @@
+package com.upi.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered UTR numbers in the "UPI" + 16 hex character format.
+ *
+ * The 64-bit value behind the hex digits is laid out like a Snowflake id:
+ * 41 bits of milliseconds since {@link #EPOCH_MS}, 10 bits of node id and a 12-bit sequence.
+ * UTRs from one node are strictly increasing and nodes never collide, so no uniqueness retry is needed.
+ */
+@Component
+public class UtrGenerator {
+
+    public static final String PREFIX = "UPI";
+
+    static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final long nodeId;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong lastState = new AtomicLong();
+
+    public UtrGenerator(@Value("${upi.app.nodeId:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("upi.app.nodeId must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public String nextUtr() {
+        long id = nextId();
+        char[] chars = new char[PREFIX.length() + 16];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MS;
+        while (true) {
+            long prev = lastState.get();
+            // A new millisecond restarts the sequence. Otherwise (same millisecond, sequence exhausted or the
+            // clock stepping back) keep counting; an overflowing sequence carries into the timestamp bits.
+            long next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+            if (lastState.compareAndSet(prev, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.upi.cache;
+
+import com.upi.dto.transaction.TransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RecentTransactionCacheTest {
+
+    private static final long USER = 1L;
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void bufferIsReloadedOnceOlderThanMaxAge() {
+        RecentTransactionCache cache = new RecentTransactionCache(20, 100, HOUR, 0);
+        CountingLoader loader = new CountingLoader(transaction(1L, "COMPLETED"));
+
+        cache.getRecent(USER, 5, loader);
+        cache.getRecent(USER, 5, loader);
+
+        assertThat(loader.calls).hasValue(2);
+    }
+
+    @Test
+    void recordReplacesHeldTransaction() {
+        RecentTransactionCache cache = new RecentTransactionCache(20, 100, HOUR, HOUR);
+        CountingLoader loader = new CountingLoader(transaction(2L, "COMPLETED"), transaction(1L, "PROCESSING"));
+        cache.getRecent(USER, 5, loader);
+
+        cache.record(USER, transaction(1L, "COMPLETED"));
+
+        assertThat(cache.getRecent(USER, 5, loader))
+                .extracting(TransactionResponse::getId, TransactionResponse::getStatus)
+                .containsExactly(tuple(2L, "COMPLETED"), tuple(1L, "COMPLETED"));
+        assertThat(loader.calls).hasValue(1);
+    }
+
+    @Test
+    void sweepDropsIdleBuffers() {
+        RecentTransactionCache cache = new RecentTransactionCache(20, 100, 0, HOUR);
+        cache.getRecent(USER, 5, new CountingLoader(transaction(1L, "COMPLETED")));
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.evictIdle();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void usersBeyondMaxUsersAreNotBuffered() {
+        RecentTransactionCache cache = new RecentTransactionCache(20, 1, HOUR, HOUR);
+        CountingLoader loader = new CountingLoader(transaction(1L, "COMPLETED"));
+        cache.getRecent(USER, 5, loader);
+        cache.getRecent(2L, 5, loader);
+        cache.getRecent(2L, 5, loader);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(loader.calls).hasValue(3);
+    }
+
+    private static TransactionResponse transaction(Long id, String status) {
+        return TransactionResponse.builder().id(id).status(status).build();
+    }
+
+    private static final class CountingLoader implements RecentTransactionCache.Loader {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<TransactionResponse> rows;
+
+        CountingLoader(TransactionResponse... rows) {
+            this.rows = List.of(rows);
+        }
+
+        @Override
+        public List<TransactionResponse> load(int limit) {
+            calls.incrementAndGet();
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.upi.cache;
+
+import com.upi.dto.vpa.VpaRequest;
+import com.upi.dto.vpa.VpaSummary;
+import com.upi.mapper.VpaMapper;
+import com.upi.model.BankAccount;
+import com.upi.model.User;
+import com.upi.model.VirtualPaymentAddress;
+import com.upi.repository.BankAccountRepository;
+import com.upi.repository.VirtualPaymentAddressRepository;
+import com.upi.service.impl.VpaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Address renames through {@link VpaServiceImpl#updateVpa} must leave no stale {@link VpaCache} entry behind.
+ */
+@ExtendWith(MockitoExtension.class)
+class VpaCacheTest {
+
+    private static final String OLD_ADDRESS = "alice@okbank";
+    private static final String NEW_ADDRESS = "alice.new@okbank";
+
+    private static final VpaSummary SUMMARY = new VpaSummary(10L, 1L, 100L, true);
+
+    @Spy
+    private VpaCache vpaCache = new VpaCache(1000, 60_000, 60_000);
+
+    @Mock
+    private VirtualPaymentAddressRepository vpaRepository;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private VpaMapper vpaMapper;
+
+    @Mock
+    private RecentTransactionCache recentTransactionCache;
+
+    @Mock
+    private VpaBloomFilter vpaBloomFilter;
+
+    @InjectMocks
+    private VpaServiceImpl vpaService;
+
+    private User user;
+    private VirtualPaymentAddress vpa;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(1L).username("alice").build();
+        BankAccount bankAccount = BankAccount.builder().id(100L).user(user).verified(true).build();
+        vpa = VirtualPaymentAddress.builder().id(10L).user(user).bankAccount(bankAccount).address(OLD_ADDRESS)
+                .active(true).build();
+    }
+
+    @Test
+    void renameInvalidatesOldAddress() {
+        CountingLoader loader = new CountingLoader(Optional.of(SUMMARY));
+        assertThat(vpaCache.get(OLD_ADDRESS, loader)).contains(SUMMARY);
+
+        rename();
+
+        loader.result = Optional.empty();
+        assertThat(vpaCache.get(OLD_ADDRESS, loader)).isEmpty();
+        assertThat(loader.calls).hasValue(2);
+    }
+
+    @Test
+    void renameDropsNegativeEntryForNewAddress() {
+        CountingLoader loader = new CountingLoader(Optional.empty());
+        assertThat(vpaCache.get(NEW_ADDRESS, loader)).isEmpty();
+        assertThat(vpaCache.get(NEW_ADDRESS, loader)).isEmpty();
+        assertThat(loader.calls).hasValue(1);
+
+        rename();
+
+        loader.result = Optional.of(SUMMARY);
+        assertThat(vpaCache.get(NEW_ADDRESS, loader)).contains(SUMMARY);
+        assertThat(loader.calls).hasValue(2);
+    }
+
+    @Test
+    void loadRacingRenameIsNotCached() {
+        // The rename lands while the lookup is reading the pre-rename row
+        Function<String, Optional<VpaSummary>> racingLoader = address -> {
+            rename();
+            return Optional.of(SUMMARY);
+        };
+        assertThat(vpaCache.get(OLD_ADDRESS, racingLoader)).contains(SUMMARY);
+
+        CountingLoader loader = new CountingLoader(Optional.empty());
+        assertThat(vpaCache.get(OLD_ADDRESS, loader)).isEmpty();
+        assertThat(loader.calls).hasValue(1);
+    }
+
+    private void rename() {
+        when(vpaRepository.findByUserAndId(user, 10L)).thenReturn(Optional.of(vpa));
+        when(vpaRepository.existsByAddress(NEW_ADDRESS)).thenReturn(false);
+        when(vpaRepository.save(any(VirtualPaymentAddress.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        vpaService.updateVpa(user, 10L, VpaRequest.builder()
+                .bankAccountId(100L)
+                .username("alice.new")
+                .handle("okbank")
+                .build());
+        assertThat(vpa.getAddress()).isEqualTo(NEW_ADDRESS);
+    }
+
+    private static final class CountingLoader implements Function<String, Optional<VpaSummary>> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private Optional<VpaSummary> result;
+
+        CountingLoader(Optional<VpaSummary> result) {
+            this.result = result;
+        }
+
+        @Override
+        public Optional<VpaSummary> apply(String address) {
+            calls.incrementAndGet();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.upi.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Counts JDBC round trips and rows on the current thread, for whatever runs through a data source
+ * returned by {@link #wrap}: Hibernate and JdbcTemplate alike. An executed statement counts once
+ * (a whole JDBC batch included); rows are result set rows read plus update counts. Batches executed
+ * are also counted on their own.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+
+    private SqlStatementCounter() {
+    }
+
+    public static long statements() {
+        return COUNTS.get()[0];
+    }
+
+    public static long rows() {
+        return COUNTS.get()[1];
+    }
+
+    public static long batches() {
+        return COUNTS.get()[2];
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return new CountingDataSource(dataSource);
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public void close() throws Exception {
+            // Lets the container still shut the wrapped pool down
+            if (getTargetDataSource() instanceof AutoCloseable) {
+                ((AutoCloseable) getTargetDataSource()).close();
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, super.getConnection(), SqlStatementCounter::onConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return proxy(Connection.class, super.getConnection(username, password), SqlStatementCounter::onConnection);
+        }
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object result);
+    }
+
+    private static Object onConnection(Method method, Object result) {
+        String name = method.getName();
+        if (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall")) {
+            return proxy(method.getReturnType(), result, SqlStatementCounter::onStatement);
+        }
+        return result;
+    }
+
+    private static Object onStatement(Method method, Object result) {
+        String name = method.getName();
+        if (name.startsWith("execute")) {
+            long[] counts = COUNTS.get();
+            counts[0]++;
+            if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                counts[2]++;
+            }
+            if (result instanceof Number) {
+                counts[1] += Math.max(0, ((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int updated : (int[]) result) {
+                    // Drivers may report SUCCESS_NO_INFO for batched rows; count each as one
+                    counts[1] += updated >= 0 ? updated : 1;
+                }
+            } else if (result instanceof long[]) {
+                for (long updated : (long[]) result) {
+                    counts[1] += updated >= 0 ? updated : 1;
+                }
+            }
+        }
+        if (result instanceof ResultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+            return proxy(ResultSet.class, result, SqlStatementCounter::onResultSet);
+        }
+        return result;
+    }
+
+    private static Object onResultSet(Method method, Object result) {
+        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+            COUNTS.get()[1]++;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // Identity semantics, so Hibernate can track the proxies in hash-based registries
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return handler.handle(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+}
@@ -0,0 +1,59 @@
+package com.upi.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final int MANY_KEYS = 100;
+
+    @Test
+    void burstIsAllowedThenRequestsWait() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1, 3, MANY_KEYS);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        // Keys have their own buckets
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void keysBeyondMaxKeysShareTheOverflowBucket() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1, 1, 1);
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.tryAcquire("c")).isPositive();
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void evictIdleKeepsBucketsStillDraining() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1, 2, MANY_KEYS);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+
+        limiter.evictIdle();
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void evictIdleDropsRefilledBuckets() throws InterruptedException {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1000, 1, MANY_KEYS);
+        limiter.tryAcquire("a");
+        Thread.sleep(5);
+
+        limiter.evictIdle();
+
+        assertThat(limiter.size()).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.upi.service;
+
+import com.upi.dto.bank.BankAccountRequest;
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.model.BankAccount;
+import com.upi.model.User;
+import com.upi.repository.BankAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BankAccountServiceSqlBudgetTest extends SqlBudgetTestSupport {
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    private User user;
+    private BankAccountResponse account;
+    private BankAccountResponse secondAccount;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        account = newBankAccount(user, true);
+        secondAccount = newBankAccount(user, false);
+    }
+
+    @Test
+    void getAllBankAccounts() throws Exception {
+        assertThat(withinBudget(1, 2, () -> bankAccountService.getAllBankAccounts(user))).hasSize(2);
+    }
+
+    @Test
+    void getBankAccountById() throws Exception {
+        withinBudget(1, 1, () -> bankAccountService.getBankAccountById(user, account.getId()));
+    }
+
+    @Test
+    void addBankAccount() throws Exception {
+        withinBudget(3 + NEW_ID_BLOCK, 2 + NEW_ID_BLOCK, () -> bankAccountService.addBankAccount(user,
+                BankAccountRequest.builder()
+                        .bankName("Budget Bank")
+                        .accountHolderName("Budget Test")
+                        .accountNumber("700000000001")
+                        .ifscCode("BUDG0700001")
+                        .accountType("CURRENT")
+                        .upiPin(UPI_PIN)
+                        .build()));
+    }
+
+    @Test
+    void updateBankAccount() throws Exception {
+        withinBudget(2, 2, () -> bankAccountService.updateBankAccount(user, account.getId(),
+                BankAccountRequest.builder()
+                        .bankName("Renamed Bank")
+                        .accountHolderName("Budget Test")
+                        .accountNumber(account.getAccountNumber())
+                        .ifscCode(account.getIfscCode())
+                        .accountType("SAVINGS")
+                        .upiPin(UPI_PIN)
+                        .build()));
+    }
+
+    @Test
+    void deleteBankAccount() throws Exception {
+        withinBudget(3, 2, () -> bankAccountService.deleteBankAccount(user, secondAccount.getId()));
+    }
+
+    @Test
+    void setPrimaryBankAccount() throws Exception {
+        withinBudget(3, 4, () -> bankAccountService.setPrimaryBankAccount(user, secondAccount.getId()));
+    }
+
+    @Test
+    void verifyBankAccount() throws Exception {
+        withinBudget(2, 2, () -> bankAccountService.verifyBankAccount(user, secondAccount.getId()));
+    }
+
+    @Test
+    void getBankBalance() throws Exception {
+        withinBudget(1, 1, () -> bankAccountService.getBankBalance(user, account.getId()));
+    }
+
+    @Test
+    void validateUpiPin() throws Exception {
+        withinBudget(1, 1, () -> bankAccountService.validateUpiPin(user, account.getId(), UPI_PIN));
+    }
+
+    @Test
+    void matchesUpiPin() throws Exception {
+        BankAccount loaded = bankAccountRepository.findById(account.getId()).orElseThrow();
+        assertThat(withinBudget(0, 0, () -> bankAccountService.matchesUpiPin(loaded, UPI_PIN))).isTrue();
+    }
+}
@@ -0,0 +1,60 @@
+package com.upi.service;
+
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.model.User;
+import com.upi.repository.IdempotencyRecordRepository;
+import com.upi.service.impl.IdempotencyRecordPurger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stored idempotency keys are purged once older than the TTL. The TTL is zero here, so every key stored
+ * before an explicit purge counts as expired; the scheduled purge is pushed out.
+ */
+@TestPropertySource(properties = {
+        "upi.app.idempotency.ttlMs=0",
+        "upi.app.idempotency.purgeIntervalMs=3600000"
+})
+class IdempotencyRecordPurgerTest extends SqlBudgetTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private IdempotencyRecordPurger idempotencyRecordPurger;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    void purgeDeletesExpiredKeys() throws InterruptedException {
+        User sender = newUser();
+        String senderVpa = newVpa(sender, newBankAccount(sender, true).getId()).getAddress();
+        User receiver = newUser();
+        String receiverVpa = newVpa(receiver, newBankAccount(receiver, true).getId()).getAddress();
+        TransactionRequest request = TransactionRequest.builder()
+                .senderVpa(senderVpa)
+                .receiverVpa(receiverVpa)
+                .amount(BigDecimal.TEN)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build();
+        TransactionResponse first = transactionService.initiateTransaction(sender, request, "purge-" + senderVpa);
+        assertThat(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(sender.getId(), "purge-" + senderVpa))
+                .isPresent();
+        Thread.sleep(5);
+
+        idempotencyRecordPurger.purge();
+
+        assertThat(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(sender.getId(), "purge-" + senderVpa))
+                .isEmpty();
+        TransactionResponse second = transactionService.initiateTransaction(sender, request, "purge-" + senderVpa);
+        assertThat(second.getUtrNumber()).isNotEqualTo(first.getUtrNumber());
+    }
+}
@@ -0,0 +1,156 @@
+package com.upi.service;
+
+import com.upi.dto.transaction.BulkPayoutLeg;
+import com.upi.dto.transaction.BulkPayoutRequest;
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.metrics.SqlStatementCounter;
+import com.upi.model.IdempotencyRecord;
+import com.upi.model.User;
+import com.upi.repository.BankAccountRepository;
+import com.upi.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Inserts go out as JDBC batches now that ids come from pooled sequences, so a unique key clash only
+ * surfaces when the session flushes. Checks both, against H2 through the real transactional proxies.
+ */
+class InsertBatchingTest extends SqlBudgetTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private User sender;
+    private Long senderBankAccountId;
+    private String senderVpa;
+    private String receiverVpa;
+
+    @BeforeEach
+    void setUp() {
+        sender = newUser();
+        senderBankAccountId = newBankAccount(sender, true).getId();
+        senderVpa = newVpa(sender, senderBankAccountId).getAddress();
+        User receiver = newUser();
+        receiverVpa = newVpa(receiver, newBankAccount(receiver, true).getId()).getAddress();
+    }
+
+    @Test
+    void signupInsertsUserAndRolesAsBatches() {
+        long batchesBefore = SqlStatementCounter.batches();
+        newUser();
+        // One batch for users, one for user_roles
+        assertThat(SqlStatementCounter.batches() - batchesBefore).isEqualTo(2);
+    }
+
+    @Test
+    void bulkPayoutStatementsDoNotGrowWithLegs() {
+        long[] few = statementsAndBatches(() -> bulkPayout(3));
+        long[] many = statementsAndBatches(() -> bulkPayout(60));
+
+        // Credits and inserts are one batch each, however many legs
+        assertThat(few[1]).isEqualTo(2);
+        assertThat(many[1]).isEqualTo(2);
+        assertThat(many[0]).isLessThanOrEqualTo(few[0] + NEW_ID_BLOCK);
+    }
+
+    @Test
+    void duplicateUsernameFailsAtCommit() {
+        User existing = newUser();
+        long users = userRepository.count();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                userRepository.save(User.builder()
+                        .username(existing.getUsername())
+                        .firstName("Duplicate")
+                        .lastName("User")
+                        .email("duplicate." + existing.getEmail())
+                        .phone("7" + existing.getPhone().substring(1))
+                        .password(existing.getPassword())
+                        .roles(Collections.emptySet())
+                        .build())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(userRepository.count()).isEqualTo(users);
+    }
+
+    @Test
+    void idempotencyKeyRaceIsAnsweredWithTheWinningPayment() {
+        String key = "race-" + senderVpa;
+        TransactionRequest request = payment();
+
+        // Another node commits the same key with its payment after our lookup found nothing
+        TransactionResponse winner = transactionService.initiateTransaction(sender, request, key + "-other");
+        IdempotencyRecord winnerRecord = idempotencyRecordRepository
+                .findByUserIdAndIdempotencyKey(sender.getId(), key + "-other").orElseThrow();
+        IdempotencyRecord committed = idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                .userId(sender.getId())
+                .idempotencyKey(key)
+                .requestHash(winnerRecord.getRequestHash())
+                .utrNumber(winner.getUtrNumber())
+                .build());
+        doReturn(Optional.empty()).doReturn(Optional.of(committed))
+                .when(idempotencyRecordRepository).findByUserIdAndIdempotencyKey(anyLong(), anyString());
+        BigDecimal balance = balance();
+
+        TransactionResponse response = transactionService.initiateTransaction(sender, request, key);
+
+        // The record insert clashed at commit, so our payment rolled back and the winner is returned
+        assertThat(response.getUtrNumber()).isEqualTo(winner.getUtrNumber());
+        assertThat(balance()).isEqualByComparingTo(balance);
+    }
+
+    private void bulkPayout(int legs) {
+        BulkPayoutLeg leg = BulkPayoutLeg.builder().receiverVpa(receiverVpa).amount(BigDecimal.ONE).build();
+        transactionService.initiateBulkPayout(sender, BulkPayoutRequest.builder()
+                .senderVpa(senderVpa)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .legs(Collections.nCopies(legs, leg))
+                .build());
+    }
+
+    private long[] statementsAndBatches(Runnable call) {
+        long statements = SqlStatementCounter.statements();
+        long batches = SqlStatementCounter.batches();
+        call.run();
+        return new long[]{SqlStatementCounter.statements() - statements, SqlStatementCounter.batches() - batches};
+    }
+
+    private TransactionRequest payment() {
+        return TransactionRequest.builder()
+                .senderVpa(senderVpa)
+                .receiverVpa(receiverVpa)
+                .amount(BigDecimal.TEN)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build();
+    }
+
+    private BigDecimal balance() {
+        return bankAccountRepository.findById(senderBankAccountId).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,82 @@
+package com.upi.service;
+
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements Hibernate prepares for one synchronous payment. Runs in its own context with statistics on
+ * and the background jobs pushed out, since the statistics count every session in the application.
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "upi.app.tokenRevocation.refreshIntervalMs=3600000",
+        "upi.app.paymentRecovery.intervalMs=3600000"
+})
+class PaymentStatementCountTest extends SqlBudgetTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User sender;
+    private TransactionRequest payment;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        sender = newUser();
+        User receiver = newUser();
+        payment = TransactionRequest.builder()
+                .senderVpa(newVpa(sender, newBankAccount(sender, true).getId()).getAddress())
+                .receiverVpa(newVpa(receiver, newBankAccount(receiver, true).getId()).getAddress())
+                .amount(BigDecimal.TEN)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build();
+
+        // Starts the block of transaction ids, so the measured payments never fetch from the sequence
+        User other = newUser();
+        User otherReceiver = newUser();
+        transactionService.initiateTransaction(other, TransactionRequest.builder()
+                .senderVpa(newVpa(other, newBankAccount(other, true).getId()).getAddress())
+                .receiverVpa(newVpa(otherReceiver, newBankAccount(otherReceiver, true).getId()).getAddress())
+                .amount(BigDecimal.ONE)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build());
+    }
+
+    @Test
+    void paymentWithColdVpaCache() {
+        // Sender and receiver summaries, then the join fetch, debit, credit and insert
+        assertThat(statementsFor(() -> transactionService.initiateTransaction(sender, payment))).isEqualTo(6);
+    }
+
+    @Test
+    void paymentWithWarmVpaCache() {
+        transactionService.initiateTransaction(sender, payment);
+
+        // Join fetch, debit, credit and insert
+        assertThat(statementsFor(() -> transactionService.initiateTransaction(sender, payment))).isEqualTo(4);
+    }
+
+    private long statementsFor(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
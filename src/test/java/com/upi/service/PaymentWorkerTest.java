@@ -0,0 +1,241 @@
+package com.upi.service;
+
+import com.upi.cache.RecentTransactionCache;
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.lock.AccountLockManager;
+import com.upi.model.User;
+import com.upi.repository.BankAccountRepository;
+import com.upi.service.impl.StalePaymentSweeper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Submitted payments on the worker pipeline, against H2. One payment worker, which a test can hold on a
+ * latch to look at a payment while it is still queued, and a queue small enough to fill. Every submitted row
+ * counts as stale to an explicit sweep; the scheduled one is pushed out.
+ */
+@TestPropertySource(properties = {
+        "upi.app.paymentExecutor.threads=1",
+        "upi.app.paymentExecutor.queueCapacity=4",
+        "upi.app.paymentRecovery.staleAfterMs=0",
+        "upi.app.paymentRecovery.intervalMs=3600000",
+        "upi.app.tokenRevocation.refreshIntervalMs=3600000"
+})
+class PaymentWorkerTest extends SqlBudgetTestSupport {
+
+    private static final int RECENT = 5;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private StalePaymentSweeper stalePaymentSweeper;
+
+    @Autowired
+    private RecentTransactionCache recentTransactionCache;
+
+    @Autowired
+    private ThreadPoolTaskExecutor paymentExecutor;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User sender;
+    private User receiver;
+    private Long senderAccountId;
+    private Long receiverAccountId;
+    private String senderVpa;
+    private String receiverVpa;
+    private CountDownLatch worker;
+
+    @BeforeEach
+    void setUp() {
+        sender = newUser();
+        senderAccountId = newBankAccount(sender, true).getId();
+        senderVpa = newVpa(sender, senderAccountId).getAddress();
+        receiver = newUser();
+        receiverAccountId = newBankAccount(receiver, true).getId();
+        receiverVpa = newVpa(receiver, receiverAccountId).getAddress();
+    }
+
+    @AfterEach
+    void releaseWorker() throws InterruptedException {
+        if (worker != null) {
+            worker.countDown();
+        }
+        drainPaymentExecutor();
+    }
+
+    @Test
+    void submittedPaymentIsProcessedToCompletion() throws InterruptedException {
+        BigDecimal senderBalance = balance(senderAccountId);
+        BigDecimal receiverBalance = balance(receiverAccountId);
+        holdWorker();
+        TransactionResponse submitted = transactionService.submitTransaction(sender, payment());
+        assertThat(status(submitted)).isEqualTo("INITIATED");
+
+        worker.countDown();
+        drainPaymentExecutor();
+
+        TransactionResponse processed = transactionService.getTransactionByUtr(submitted.getUtrNumber());
+        assertThat(processed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(processed.getCompletedAt()).isNotNull();
+        assertThat(balance(senderAccountId)).isEqualByComparingTo(senderBalance.subtract(BigDecimal.TEN));
+        assertThat(balance(receiverAccountId)).isEqualByComparingTo(receiverBalance.add(BigDecimal.TEN));
+    }
+
+    @Test
+    void paymentRejectedByFullQueueAtCommitIsFailed() throws InterruptedException {
+        BigDecimal senderBalance = balance(senderAccountId);
+        holdWorker();
+
+        // The queue fills after the up-front capacity check but before the hand-over at commit
+        TransactionResponse submitted = new TransactionTemplate(transactionManager).execute(status -> {
+            TransactionResponse response = transactionService.submitTransaction(sender, payment());
+            fillQueue();
+            return response;
+        });
+
+        TransactionResponse rejected = transactionService.getTransactionByUtr(submitted.getUtrNumber());
+        assertThat(rejected.getStatus()).isEqualTo("FAILED");
+        assertThat(rejected.getFailureReason()).isEqualTo("Payment queue is full, please retry");
+
+        worker.countDown();
+        drainPaymentExecutor();
+        assertThat(status(submitted)).isEqualTo("FAILED");
+        assertThat(balance(senderAccountId)).isEqualByComparingTo(senderBalance);
+    }
+
+    @Test
+    void sweepRacingCompletionLeavesPaymentFailedAndBalancesUnchanged() throws InterruptedException {
+        BigDecimal senderBalance = balance(senderAccountId);
+        BigDecimal receiverBalance = balance(receiverAccountId);
+        TransactionResponse submitted;
+
+        // The worker marks the payment PROCESSING and then waits on the sender's account lock
+        try (AccountLockManager.Handle locks = accountLockManager.lock(senderAccountId)) {
+            submitted = transactionService.submitTransaction(sender, payment());
+            awaitStatus(submitted, "PROCESSING");
+
+            stalePaymentSweeper.sweep();
+        }
+        drainPaymentExecutor();
+
+        TransactionResponse swept = transactionService.getTransactionByUtr(submitted.getUtrNumber());
+        assertThat(swept.getStatus()).isEqualTo("FAILED");
+        assertThat(swept.getFailureReason()).isEqualTo("Payment was not processed in time, please retry");
+        assertThat(balance(senderAccountId)).isEqualByComparingTo(senderBalance);
+        assertThat(balance(receiverAccountId)).isEqualByComparingTo(receiverBalance);
+    }
+
+    @Test
+    void recentActivityShowsCompletionOfCachedSubmittedPayment() throws InterruptedException {
+        holdWorker();
+        TransactionResponse submitted = transactionService.submitTransaction(sender, payment());
+        assertThat(recentStatus(sender, submitted)).isEqualTo("INITIATED");
+        assertThat(recentStatus(receiver, submitted)).isEqualTo("INITIATED");
+
+        worker.countDown();
+        drainPaymentExecutor();
+
+        long hits = recentTransactionCache.getHits();
+        assertThat(recentStatus(sender, submitted)).isEqualTo("COMPLETED");
+        assertThat(recentStatus(receiver, submitted)).isEqualTo("COMPLETED");
+        assertThat(recentTransactionCache.getHits() - hits).isEqualTo(2);
+    }
+
+    @Test
+    void recentActivityShowsPaymentFailedBySweep() throws InterruptedException {
+        holdWorker();
+        TransactionResponse submitted = transactionService.submitTransaction(sender, payment());
+        assertThat(recentStatus(sender, submitted)).isEqualTo("INITIATED");
+        assertThat(recentStatus(receiver, submitted)).isEqualTo("INITIATED");
+
+        stalePaymentSweeper.sweep();
+
+        assertThat(recentStatus(sender, submitted)).isEqualTo("FAILED");
+        assertThat(recentStatus(receiver, submitted)).isEqualTo("FAILED");
+    }
+
+    private void holdWorker() {
+        worker = new CountDownLatch(1);
+        paymentExecutor.execute(this::awaitRelease);
+    }
+
+    private void fillQueue() {
+        while (paymentExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+            paymentExecutor.execute(this::awaitRelease);
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            worker.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitStatus(TransactionResponse transaction, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!status(transaction).equals(expected)) {
+            assertThat(System.currentTimeMillis()).as("transaction reached " + expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private String status(TransactionResponse transaction) {
+        return transactionService.getTransactionByUtr(transaction.getUtrNumber()).getStatus();
+    }
+
+    private BigDecimal balance(Long bankAccountId) {
+        return bankAccountRepository.findBalanceById(bankAccountId);
+    }
+
+    private void drainPaymentExecutor() throws InterruptedException {
+        ThreadPoolExecutor executor = paymentExecutor.getThreadPoolExecutor();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (executor.getCompletedTaskCount() < executor.getTaskCount()) {
+            assertThat(System.currentTimeMillis()).as("payment executor drained").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private String recentStatus(User user, TransactionResponse transaction) {
+        return transactionService.getRecentTransactions(user, RECENT).stream()
+                .filter(recent -> recent.getId().equals(transaction.getId()))
+                .map(TransactionResponse::getStatus)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private TransactionRequest payment() {
+        return TransactionRequest.builder()
+                .senderVpa(senderVpa)
+                .receiverVpa(receiverVpa)
+                .amount(BigDecimal.TEN)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.upi.service;
+
+import com.upi.dto.auth.SignupRequest;
+import com.upi.dto.bank.BankAccountRequest;
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.dto.vpa.VpaRequest;
+import com.upi.dto.vpa.VpaResponse;
+import com.upi.metrics.SqlStatementCounter;
+import com.upi.model.User;
+import com.upi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL budgets for the service layer: the most JDBC statements (a JDBC batch counts once) and rows one
+ * call may need, commit-time flushes included. Calls run against H2 through the real transactional
+ * proxies, and every test seeds its own users, so caches hold only what that test's setup loaded.
+ * Budgets are the counts measured when the tests were written; an extra round trip fails the build.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.upi=INFO",
+        "upi.app.rateLimit.enabled=false"
+})
+@Import(SqlBudgetTestSupport.CountingDataSourceConfig.class)
+abstract class SqlBudgetTestSupport {
+
+    // An insert that starts a new block of pooled sequence ids runs one more statement, reading one row
+    static final long NEW_ID_BLOCK = 1;
+
+    static final String UPI_PIN = "1234";
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected AuthService authService;
+
+    @Autowired
+    protected BankAccountService bankAccountService;
+
+    @Autowired
+    protected VpaService vpaService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? SqlStatementCounter.wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    protected User newUser() {
+        int n = SEQUENCE.incrementAndGet();
+        String username = "budget_" + n;
+        authService.registerUser(SignupRequest.builder()
+                .username(username)
+                .firstName("Budget")
+                .lastName("Test" + n)
+                .email(username + "@budget.local")
+                .phone(String.format("8%09d", n))
+                .password("password123")
+                .build());
+        return userRepository.findByUsername(username).orElseThrow();
+    }
+
+    protected BankAccountResponse newBankAccount(User user, boolean verified) {
+        int n = SEQUENCE.incrementAndGet();
+        BankAccountResponse account = bankAccountService.addBankAccount(user, BankAccountRequest.builder()
+                .bankName("Budget Bank")
+                .accountHolderName("Budget Test")
+                .accountNumber(String.format("60%010d", n))
+                .ifscCode(String.format("BUDG0%06d", n))
+                .accountType("SAVINGS")
+                .upiPin(UPI_PIN)
+                .build());
+        if (verified) {
+            bankAccountService.verifyBankAccount(user, account.getId());
+        }
+        return account;
+    }
+
+    protected VpaResponse newVpa(User user, Long bankAccountId) {
+        return vpaService.createVpa(user, VpaRequest.builder()
+                .bankAccountId(bankAccountId)
+                .username("budget" + SEQUENCE.incrementAndGet())
+                .handle("okbudget")
+                .build());
+    }
+
+    /**
+     * Runs the call and checks the statements and rows it needed against the budget.
+     */
+    protected <T> T withinBudget(long statements, long rows, Callable<T> call) throws Exception {
+        long statementsBefore = SqlStatementCounter.statements();
+        long rowsBefore = SqlStatementCounter.rows();
+        T result = call.call();
+        long usedStatements = SqlStatementCounter.statements() - statementsBefore;
+        long usedRows = SqlStatementCounter.rows() - rowsBefore;
+        assertThat(usedStatements).as("statements").isLessThanOrEqualTo(statements);
+        assertThat(usedRows).as("rows").isLessThanOrEqualTo(rows);
+        return result;
+    }
+}
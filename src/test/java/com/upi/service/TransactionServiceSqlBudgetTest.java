@@ -0,0 +1,168 @@
+package com.upi.service;
+
+import com.upi.dto.transaction.BulkPayoutLeg;
+import com.upi.dto.transaction.BulkPayoutRequest;
+import com.upi.dto.transaction.PaymentAuthorizationRequest;
+import com.upi.dto.transaction.TransactionRequest;
+import com.upi.dto.transaction.TransactionResponse;
+import com.upi.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionServiceSqlBudgetTest extends SqlBudgetTestSupport {
+
+    private static final int HISTORY = 3;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private User sender;
+    private String senderVpa;
+    private String receiverVpa;
+    private TransactionResponse lastPayment;
+
+    @BeforeEach
+    void setUp() {
+        sender = newUser();
+        senderVpa = newVpa(sender, newBankAccount(sender, true).getId()).getAddress();
+        User receiver = newUser();
+        receiverVpa = newVpa(receiver, newBankAccount(receiver, true).getId()).getAddress();
+        for (int i = 0; i < HISTORY; i++) {
+            lastPayment = transactionService.initiateTransaction(sender, payment());
+        }
+    }
+
+    @Test
+    void initiateTransaction() throws Exception {
+        // Both VPA summaries are cached by the setup payments: join fetch, debit, credit, insert
+        withinBudget(4 + NEW_ID_BLOCK, 5 + NEW_ID_BLOCK,
+                () -> transactionService.initiateTransaction(sender, payment()));
+    }
+
+    @Test
+    void initiateTransactionWithIdempotencyKey() throws Exception {
+        // The payment itself plus the idempotency lookup and record
+        withinBudget(7 + 2 * NEW_ID_BLOCK, 7 + 2 * NEW_ID_BLOCK,
+                () -> transactionService.initiateTransaction(sender, payment(), "budget-" + senderVpa));
+    }
+
+    @Test
+    void initiateBulkPayout() throws Exception {
+        BulkPayoutLeg leg = BulkPayoutLeg.builder().receiverVpa(receiverVpa).amount(BigDecimal.TEN).build();
+        // Credits and inserts go out as JDBC batches, so the statement count does not grow with the legs
+        withinBudget(5 + NEW_ID_BLOCK, 8 + NEW_ID_BLOCK, () -> transactionService.initiateBulkPayout(sender,
+                BulkPayoutRequest.builder()
+                        .senderVpa(senderVpa)
+                        .upiPin(UPI_PIN)
+                        .transactionType("P2P")
+                        .legs(List.of(leg, leg, leg))
+                        .build()));
+    }
+
+    @Test
+    void authorizePayments() throws Exception {
+        withinBudget(1, 1, () -> transactionService.authorizePayments(sender,
+                PaymentAuthorizationRequest.builder()
+                        .senderVpa(senderVpa)
+                        .upiPin(UPI_PIN)
+                        .deviceId("budget-device")
+                        .build()));
+    }
+
+    @Test
+    void submitTransaction() throws Exception {
+        withinBudget(1 + NEW_ID_BLOCK, 1 + NEW_ID_BLOCK, () -> transactionService.submitTransaction(sender, payment()));
+    }
+
+    @Test
+    void getTransactionByUtr() throws Exception {
+        withinBudget(1, 1, () -> transactionService.getTransactionByUtr(lastPayment.getUtrNumber()));
+    }
+
+    // A first page shorter than the page size needs no count query
+
+    @Test
+    void getUserTransactions() throws Exception {
+        assertThat(withinBudget(2, 4, () -> transactionService.getUserTransactions(sender, PageRequest.of(0, 10))))
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void getSentTransactions() throws Exception {
+        assertThat(withinBudget(2, 4, () -> transactionService.getSentTransactions(sender, PageRequest.of(0, 10))))
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void getReceivedTransactions() throws Exception {
+        assertThat(withinBudget(2, 1, () -> transactionService.getReceivedTransactions(sender, PageRequest.of(0, 10))))
+                .isEmpty();
+    }
+
+    @Test
+    void getRecentTransactions() throws Exception {
+        assertThat(withinBudget(2, 4, () -> transactionService.getRecentTransactions(sender, 5)))
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void exportUserTransactions() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        withinBudget(2, 4, () -> {
+            transactionService.exportUserTransactions(sender, out);
+            return out;
+        });
+        assertThat(out.toString().trim().split("\n")).hasSize(HISTORY);
+    }
+
+    @Test
+    void getTransactionsByVpa() throws Exception {
+        assertThat(withinBudget(1, 3,
+                () -> transactionService.getTransactionsByVpa(sender, senderVpa, PageRequest.of(0, 10))))
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void getUserTransactionSlice() throws Exception {
+        assertThat(withinBudget(2, 4, () -> transactionService.getUserTransactionSlice(sender, null, 10)).getContent())
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void getSentTransactionSlice() throws Exception {
+        assertThat(withinBudget(2, 4, () -> transactionService.getSentTransactionSlice(sender, null, 10)).getContent())
+                .hasSize(HISTORY);
+    }
+
+    @Test
+    void getReceivedTransactionSlice() throws Exception {
+        assertThat(withinBudget(2, 1,
+                () -> transactionService.getReceivedTransactionSlice(sender, null, 10)).getContent())
+                .isEmpty();
+    }
+
+    @Test
+    void getTransactionSliceByVpa() throws Exception {
+        assertThat(withinBudget(1, 3,
+                () -> transactionService.getTransactionSliceByVpa(sender, senderVpa, null, 10)).getContent())
+                .hasSize(HISTORY);
+    }
+
+    private TransactionRequest payment() {
+        return TransactionRequest.builder()
+                .senderVpa(senderVpa)
+                .receiverVpa(receiverVpa)
+                .amount(BigDecimal.TEN)
+                .upiPin(UPI_PIN)
+                .transactionType("P2P")
+                .build();
+    }
+}
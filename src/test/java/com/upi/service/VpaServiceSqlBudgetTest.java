@@ -0,0 +1,80 @@
+package com.upi.service;
+
+import com.upi.dto.bank.BankAccountResponse;
+import com.upi.dto.vpa.VpaRequest;
+import com.upi.dto.vpa.VpaResponse;
+import com.upi.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VpaServiceSqlBudgetTest extends SqlBudgetTestSupport {
+
+    private User user;
+    private BankAccountResponse account;
+    private VpaResponse vpa;
+    private VpaResponse secondVpa;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        account = newBankAccount(user, true);
+        vpa = newVpa(user, account.getId());
+        secondVpa = newVpa(user, account.getId());
+    }
+
+    @Test
+    void getAllVpas() throws Exception {
+        assertThat(withinBudget(1, 2, () -> vpaService.getAllVpas(user))).hasSize(2);
+    }
+
+    @Test
+    void getVpaById() throws Exception {
+        withinBudget(2, 2, () -> vpaService.getVpaById(user, vpa.getId()));
+    }
+
+    @Test
+    void getVpaByAddress() throws Exception {
+        withinBudget(3, 3, () -> vpaService.getVpaByAddress(vpa.getAddress()));
+    }
+
+    @Test
+    void createVpa() throws Exception {
+        withinBudget(4 + NEW_ID_BLOCK, 3 + NEW_ID_BLOCK, () -> vpaService.createVpa(user, VpaRequest.builder()
+                .bankAccountId(account.getId())
+                .username("budget.created")
+                .handle("okbudget")
+                .build()));
+    }
+
+    @Test
+    void updateVpa() throws Exception {
+        withinBudget(4, 3, () -> vpaService.updateVpa(user, secondVpa.getId(), VpaRequest.builder()
+                .bankAccountId(account.getId())
+                .username("budget.renamed")
+                .handle("okbudget")
+                .build()));
+    }
+
+    @Test
+    void deleteVpa() throws Exception {
+        withinBudget(2, 2, () -> vpaService.deleteVpa(user, secondVpa.getId()));
+    }
+
+    @Test
+    void setPrimaryVpa() throws Exception {
+        withinBudget(4, 5, () -> vpaService.setPrimaryVpa(user, secondVpa.getId()));
+    }
+
+    @Test
+    void getVpasByBankAccount() throws Exception {
+        assertThat(withinBudget(2, 3, () -> vpaService.getVpasByBankAccount(user, account.getId())))
+                .hasSize(2);
+    }
+
+    @Test
+    void validateVpa() throws Exception {
+        assertThat(withinBudget(1, 1, () -> vpaService.validateVpa(vpa.getAddress()))).isTrue();
+    }
+}
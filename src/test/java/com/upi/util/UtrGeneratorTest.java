@@ -0,0 +1,104 @@
+package com.upi.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UtrGeneratorTest {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+
+    @Test
+    void nodeIdSitsBetweenTimestampAndSequence() {
+        for (long nodeId : new long[]{0, 5, NODE_MASK}) {
+            long before = System.currentTimeMillis() - UtrGenerator.EPOCH_MS;
+            long id = new UtrGenerator(nodeId).nextId();
+            long after = System.currentTimeMillis() - UtrGenerator.EPOCH_MS;
+
+            assertThat((id >>> SEQUENCE_BITS) & NODE_MASK).isEqualTo(nodeId);
+            assertThat(id >>> (NODE_BITS + SEQUENCE_BITS)).isBetween(before, after);
+            assertThat(id & SEQUENCE_MASK).isZero();
+        }
+    }
+
+    @Test
+    void nodeIdOutsideTenBitsIsRejected() {
+        assertThatThrownBy(() -> new UtrGenerator(NODE_MASK + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UtrGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void exhaustedSequenceCarriesIntoNextMillisecond() {
+        UtrGenerator generator = new UtrGenerator(7);
+        // Last id handed out was the final sequence of a millisecond the clock has not reached yet
+        long millisecond = System.currentTimeMillis() - UtrGenerator.EPOCH_MS + 60_000;
+        AtomicLong lastState = (AtomicLong) ReflectionTestUtils.getField(generator, "lastState");
+        lastState.set((millisecond << SEQUENCE_BITS) | SEQUENCE_MASK);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(first >>> (NODE_BITS + SEQUENCE_BITS)).isEqualTo(millisecond + 1);
+        assertThat(first & SEQUENCE_MASK).isZero();
+        assertThat((first >>> SEQUENCE_BITS) & NODE_MASK).isEqualTo(7);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    void idsStayUniqueAndIncreasingAcrossThreads() throws Exception {
+        UtrGenerator generator = new UtrGenerator(1);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                    }
+                    all.add(ids[i]);
+                }
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void utrsSortInIssueOrder() {
+        UtrGenerator generator = new UtrGenerator(3);
+        String first = generator.nextUtr();
+        String second = generator.nextUtr();
+
+        assertThat(first).matches("UPI[0-9A-F]{16}");
+        assertThat(second).isGreaterThan(first);
+    }
+}